@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+#
+# Load comparison between the platform-thread and virtual-thread modes.
+# Start the application in one mode, run this script, then restart in the other mode
+# and run it again with a different label:
+#
+#   ./gradlew bootRun                    # platform threads (Java 17+)
+#   ./scripts/load-compare.sh platform
+#
+#   ./gradlew bootRun -PvirtualThreads   # virtual threads (Java 21)
+#   ./scripts/load-compare.sh virtual
+#
+# Requires `hey` (https://github.com/rakyll/hey). Results are written to build/load/<label>-c<N>.txt
+set -euo pipefail
+
+LABEL="${1:?usage: load-compare.sh <label> [base-url]}"
+BASE_URL="${2:-http://localhost:8080}"
+DURATION="${DURATION:-30s}"
+CONCURRENCY_LEVELS="${CONCURRENCY_LEVELS:-50 200 1000}"
+OUT_DIR="build/load"
+
+PAYLOAD='{"itemName":"Galaxy S24","optionName":"Titanium Gray","imageUrl":"https://via.placeholder.com/600x400.png","salesUrl":"https://www.apple.com/kr/iphone-15/","salesChannel":"NAVER"}'
+
+command -v hey >/dev/null || { echo "hey is not installed" >&2; exit 1; }
+mkdir -p "$OUT_DIR"
+
+for c in $CONCURRENCY_LEVELS; do
+    out="$OUT_DIR/${LABEL}-c${c}.txt"
+    echo "== ${LABEL}: concurrency ${c}, duration ${DURATION} -> ${out}"
+    hey -z "$DURATION" -c "$c" -m POST \
+        -H "Content-Type: application/json" \
+        -d "$PAYLOAD" \
+        "${BASE_URL}/api/v1/images/fetch" > "$out"
+    grep -E "Requests/sec|Average|99% in|Status code" -A0 "$out" || true
+done
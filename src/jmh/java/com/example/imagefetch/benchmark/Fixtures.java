@@ -0,0 +1,188 @@
+package com.example.imagefetch.benchmark;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic benchmark inputs, generated instead of checked in so sizes can be varied
+ * through parameters. Every generator takes a fixed seed, so runs are comparable.
+ */
+final class Fixtures {
+
+    private static final long SEED = 20240501L;
+
+    private static final String[] CDN_HOSTS = {
+        "shop-phinf.pstatic.net",
+        "thumbnail6.coupangcdn.com",
+        "gdimg.gmarket.co.kr",
+        "cdn.011st.com",
+        "image.auction.co.kr"
+    };
+
+    private Fixtures() {
+    }
+
+    /**
+     * Product listing page shaped like the Korean marketplaces: a large inline state
+     * script, navigation and tracking pixels, then product cards with lazy-loaded images
+     * and Hangul descriptions. Roughly 900 bytes per product.
+     *
+     * @param products Number of product cards
+     * @param metaTags Whether the head carries og:image and twitter:image
+     */
+    static String marketplacePage(int products, boolean metaTags) {
+        Random random = new Random(SEED);
+        StringBuilder html = new StringBuilder(products * 1000 + 8192);
+        html.append("<!DOCTYPE html><html lang=\"ko\"><head><meta charset=\"utf-8\">");
+        html.append("<title>").append(hangul(random, 12)).append("</title>");
+        if (metaTags) {
+            html.append("<meta property=\"og:image\" content=\"").append(imageUrl(random, ".jpg")).append("\">");
+            html.append("<meta name=\"twitter:image\" content=\"").append(imageUrl(random, ".jpg")).append("\">");
+        }
+        html.append("<link rel=\"stylesheet\" href=\"https://static.example.co.kr/css/main.css\">");
+        html.append("<script>window.__PRELOADED_STATE__={\"products\":[");
+        for (int i = 0; i < products; i++) {
+            html.append("{\"id\":").append(1_000_000 + i)
+                .append(",\"name\":\"").append(hangul(random, 20))
+                .append("\",\"price\":").append(1000 + random.nextInt(200_000)).append("},");
+        }
+        html.append("{}]};</script></head><body>");
+
+        html.append("<header><nav><ul>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<li><a href=\"/category/").append(i).append("\">").append(hangul(random, 4))
+                .append("</a><img src=\"https://static.example.co.kr/icons/").append(i).append(".svg\" alt=\"\"></li>");
+        }
+        html.append("</ul></nav><img src=\"https://tracker.example.co.kr/pixel.gif?u=").append(random.nextInt())
+            .append("\" width=\"1\" height=\"1\"></header><main><div class=\"product-list\">");
+
+        for (int i = 0; i < products; i++) {
+            html.append("<div class=\"product-card\" data-product-id=\"").append(1_000_000 + i).append("\">")
+                .append("<a href=\"/products/").append(1_000_000 + i).append("\">")
+                .append("<img class=\"lazy\" src=\"data:image/gif;base64,R0lGODlhAQABAAAAACw=\" data-src=\"")
+                .append(imageUrl(random, random.nextInt(4) == 0 ? ".png" : ".jpg"))
+                .append("\" alt=\"").append(hangul(random, 10)).append("\"></a>")
+                .append("<div class=\"info\"><strong class=\"name\">").append(hangul(random, 24)).append("</strong>")
+                .append("<span class=\"price\">").append(1000 + random.nextInt(200_000)).append("\uc6d0</span>")
+                .append("<p class=\"desc\">").append(hangul(random, 80)).append("</p>")
+                .append("<ul class=\"badges\"><li>").append(hangul(random, 4)).append("</li><li>")
+                .append(hangul(random, 4)).append("</li></ul></div></div>");
+        }
+        html.append("</div></main><footer>").append(hangul(random, 200)).append("</footer></body></html>");
+        return html.toString();
+    }
+
+    /**
+     * Image URLs as they arrive from sales pages and search results: CDN URLs with and
+     * without query strings, percent-encoded Hangul paths, unsupported formats and a few
+     * malformed entries.
+     */
+    static List<String> imageUrls(int count) {
+        Random random = new Random(SEED);
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            urls.add(switch (kind) {
+                case 0, 1, 2 -> imageUrl(random, ".jpg");
+                case 3 -> imageUrl(random, ".png") + "?type=w860";
+                case 4 -> imageUrl(random, ".webp") + "?v=" + random.nextInt(1000);
+                case 5 -> "https://" + CDN_HOSTS[random.nextInt(CDN_HOSTS.length)] + "/"
+                    + percentEncoded(hangul(random, 6)) + ".JPEG";
+                case 6 -> imageUrl(random, ".svg");
+                case 7 -> "https://" + CDN_HOSTS[random.nextInt(CDN_HOSTS.length)] + "/api/image?id=" + random.nextInt();
+                case 8 -> "//" + CDN_HOSTS[random.nextInt(CDN_HOSTS.length)] + "/img/" + random.nextInt(100_000) + ".gif";
+                default -> "htp:/broken url " + random.nextInt() + ".jpg";
+            });
+        }
+        return urls;
+    }
+
+    /**
+     * Encode a noisy gradient image. Noise keeps the compressed size close to real photos.
+     *
+     * @param format "jpeg" or "png"
+     */
+    static byte[] encodedImage(String format, int width, int height) {
+        Random random = new Random(SEED);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(32)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(32)) & 0xFF;
+                int b = random.nextInt(256);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (!ImageIO.write(image, format, out)) {
+                throw new IllegalArgumentException("No ImageIO writer for " + format);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Lossless WebP (VP8L) of the given dimensions. The JDK has no WebP writer, so only
+     * the header is real and the bitstream is random bytes of a typical compressed size.
+     */
+    static byte[] webp(int width, int height) {
+        int payload = Math.max(64, width * height / 4);
+        ByteBuffer buffer = ByteBuffer.allocate(20 + 5 + payload).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(buffer.capacity() - 8);
+        buffer.put("WEBP".getBytes(StandardCharsets.US_ASCII));
+        buffer.put("VP8L".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(5 + payload);
+        buffer.put((byte) 0x2F);
+        // 14-bit width-1 and 14-bit height-1, packed little-endian
+        int bits = ((width - 1) & 0x3FFF) | (((height - 1) & 0x3FFF) << 14);
+        buffer.putInt(bits);
+        byte[] bitstream = new byte[payload];
+        new Random(SEED).nextBytes(bitstream);
+        buffer.put(bitstream);
+        return buffer.array();
+    }
+
+    private static String imageUrl(Random random, String extension) {
+        return "https://" + CDN_HOSTS[random.nextInt(CDN_HOSTS.length)] + "/"
+            + (20230101 + random.nextInt(365)) + "/" + Long.toHexString(random.nextLong()) + extension;
+    }
+
+    /**
+     * Random Hangul syllables (U+AC00..U+D7A3) separated by spaces like real words
+     */
+    private static String hangul(Random random, int syllables) {
+        StringBuilder text = new StringBuilder(syllables + syllables / 3);
+        for (int i = 0; i < syllables; i++) {
+            if (i > 0 && random.nextInt(3) == 0) {
+                text.append(' ');
+            }
+            text.append((char) (0xAC00 + random.nextInt(0xD7A3 - 0xAC00 + 1)));
+        }
+        return text.toString();
+    }
+
+    private static String percentEncoded(String text) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            if (b == ' ') {
+                encoded.append("%20");
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.imagefetch.benchmark;
+
+import com.example.imagefetch.util.HtmlParser;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Representative image selection on marketplace pages. Pages with meta tags are answered
+ * from the head; pages without them walk the product cards. Parsing and selection are
+ * also measured separately, since the streaming sales page path parses on its own.
+ */
+@State(Scope.Benchmark)
+public class HtmlParserBenchmark {
+
+    /** About 12KB, 90KB and 450KB of HTML */
+    @Param({"10", "100", "500"})
+    private int products;
+
+    @Param({"true", "false"})
+    private boolean metaTags;
+
+    private final HtmlParser htmlParser = new HtmlParser();
+
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        html = Fixtures.marketplacePage(products, metaTags);
+        document = Jsoup.parse(html);
+    }
+
+    @Benchmark
+    public List<String> selectRepresentativeImages() {
+        return htmlParser.selectRepresentativeImages(html, 3);
+    }
+
+    @Benchmark
+    public Document parse() {
+        return Jsoup.parse(html);
+    }
+
+    @Benchmark
+    public List<String> selectFromParsedDocument() {
+        return htmlParser.selectRepresentativeImages(document, 3);
+    }
+
+    @Benchmark
+    public List<String> extractItemImages() {
+        return htmlParser.extractItemImages(html);
+    }
+}
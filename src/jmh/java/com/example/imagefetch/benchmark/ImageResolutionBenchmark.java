@@ -0,0 +1,77 @@
+package com.example.imagefetch.benchmark;
+
+import com.example.imagefetch.service.ImageFetchMetrics;
+import com.example.imagefetch.service.PerformanceMetricsService;
+import com.example.imagefetch.util.ImageDimensionParser;
+import com.example.imagefetch.util.ImageDimensions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Reading image resolution: the header parser, the service entry point (parser plus
+ * metrics, with the ImageIO fallback) and plain ImageIO reader metadata as a baseline.
+ * The JDK cannot read WebP, so the ImageIO baseline returns "unknown" for it.
+ */
+@State(Scope.Benchmark)
+public class ImageResolutionBenchmark {
+
+    @Param({"jpeg", "png", "webp"})
+    private String format;
+
+    @Param({"320", "1280", "3000"})
+    private int width;
+
+    private final ImageDimensionParser imageDimensionParser = new ImageDimensionParser();
+
+    private PerformanceMetricsService performanceMetricsService;
+    private byte[] image;
+
+    @Setup
+    public void setUp() {
+        performanceMetricsService = new PerformanceMetricsService(imageDimensionParser,
+            new ImageFetchMetrics(new SimpleMeterRegistry()));
+        int height = width * 3 / 4;
+        image = "webp".equals(format)
+            ? Fixtures.webp(width, height)
+            : Fixtures.encodedImage(format, width, height);
+    }
+
+    @Benchmark
+    public Optional<ImageDimensions> dimensionParser() {
+        return imageDimensionParser.parse(image);
+    }
+
+    @Benchmark
+    public String getImageResolution() {
+        return performanceMetricsService.getImageResolution(image);
+    }
+
+    @Benchmark
+    public String imageIoReader() throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return "unknown";
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return reader.getWidth(0) + "x" + reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
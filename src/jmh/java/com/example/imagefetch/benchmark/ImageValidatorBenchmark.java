@@ -0,0 +1,52 @@
+package com.example.imagefetch.benchmark;
+
+import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.util.ImageValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * URL validation over a mixed list of candidate URLs; scores are per URL.
+ * About a third of the URLs are rejected, so the exception path is included.
+ */
+@State(Scope.Benchmark)
+public class ImageValidatorBenchmark {
+
+    private static final int URLS = 1000;
+
+    private final ImageValidator imageValidator = new ImageValidator();
+
+    private List<String> urls;
+
+    @Setup
+    public void setUp() {
+        urls = Fixtures.imageUrls(URLS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(URLS)
+    public void isValidImageFormat(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(imageValidator.isValidImageFormat(url));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(URLS)
+    public void validateImageUrl(Blackhole blackhole) {
+        for (String url : urls) {
+            try {
+                imageValidator.validateImageUrl(url);
+                blackhole.consume(true);
+            } catch (InvalidUrlException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+}
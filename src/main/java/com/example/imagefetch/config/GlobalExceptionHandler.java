@@ -1,7 +1,9 @@
 package com.example.imagefetch.config;
 
 import com.example.imagefetch.exception.ImageNotAccessibleException;
+import com.example.imagefetch.exception.ImageTooLargeException;
 import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.exception.RateLimitExceededException;
 import com.example.imagefetch.exception.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -35,6 +37,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(ImageTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handleImageTooLarge(ImageTooLargeException e) {
+        log.error("Image too large error: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "IMAGE_TOO_LARGE");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimitExceeded(RateLimitExceededException e) {
+        log.error("Rate limit error: {}", e.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "TOO_MANY_REQUESTS");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
     @ExceptionHandler(TimeoutException.class)
     public ResponseEntity<Map<String, String>> handleTimeout(TimeoutException e) {
         log.error("Timeout error: {}", e.getMessage());
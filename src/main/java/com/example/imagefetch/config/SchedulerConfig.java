@@ -0,0 +1,33 @@
+package com.example.imagefetch.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler used to run blocking strategies off the caller's thread.
+ * With spring.threads.virtual.enabled (Java 21+), each blocking strategy call
+ * gets its own virtual thread instead of a bounded elastic platform thread.
+ */
+@Slf4j
+@Configuration
+public class SchedulerConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public Scheduler strategyScheduler() {
+        if (virtualThreads) {
+            log.info("Running blocking strategies on virtual threads");
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("strategy-");
+            executor.setVirtualThreads(true);
+            return Schedulers.fromExecutor(executor);
+        }
+        return Schedulers.boundedElastic();
+    }
+}
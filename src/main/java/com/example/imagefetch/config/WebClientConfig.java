@@ -17,6 +17,9 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class WebClientConfig {
 
+    /** Browser User-Agent sent to sales pages, which often reject unknown clients */
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+
     @Value("${webclient.timeout.connect:5000}")
     private int connectTimeoutMs;
 
@@ -31,9 +34,12 @@ public class WebClientConfig {
 
     @Bean
     public WebClient webClient() {
-        ConnectionProvider connectionProvider = ConnectionProvider.builder("custom")
+        // Pool gauges (active, idle, pending acquire) go to the global Micrometer registry,
+        // which Spring Boot's registry is added to
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("image-fetch")
             .maxConnections(maxConnections)
             .pendingAcquireTimeout(Duration.ofMillis(5000))
+            .metrics(true)
             .build();
 
         HttpClient httpClient = HttpClient.create(connectionProvider)
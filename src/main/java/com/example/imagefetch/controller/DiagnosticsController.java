@@ -0,0 +1,86 @@
+package com.example.imagefetch.controller;
+
+import com.example.imagefetch.service.AdaptiveTimeoutService;
+import com.example.imagefetch.service.CircuitBreakerService;
+import com.example.imagefetch.service.HedgingService;
+import com.example.imagefetch.service.ImageBlobStore;
+import com.example.imagefetch.service.ImageMetadataIndex;
+import com.example.imagefetch.service.ImageResultCache;
+import com.example.imagefetch.service.PerceptualHashService;
+import com.example.imagefetch.service.RateLimiterService;
+import com.example.imagefetch.service.ThumbnailService;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+
+    private final ImageResultCache imageResultCache;
+    private final SingleFlightRegistry singleFlightRegistry;
+    private final RateLimiterService rateLimiterService;
+    private final ImageMetadataIndex imageMetadataIndex;
+    private final ImageBlobStore imageBlobStore;
+    private final ThumbnailService thumbnailService;
+    private final PerceptualHashService perceptualHashService;
+    private final HedgingService hedgingService;
+    private final AdaptiveTimeoutService adaptiveTimeoutService;
+    private final CircuitBreakerService circuitBreakerService;
+
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(imageResultCache.stats());
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<Map<String, Object>> singleFlightStats() {
+        return ResponseEntity.ok(singleFlightRegistry.stats());
+    }
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Object>> rateLimitStats() {
+        return ResponseEntity.ok(rateLimiterService.stats());
+    }
+
+    @GetMapping("/metadata-index")
+    public ResponseEntity<Map<String, Object>> metadataIndexStats() {
+        return ResponseEntity.ok(imageMetadataIndex.stats());
+    }
+
+    @GetMapping("/blob-store")
+    public ResponseEntity<Map<String, Object>> blobStoreStats() {
+        return ResponseEntity.ok(imageBlobStore.stats());
+    }
+
+    @GetMapping("/thumbnails")
+    public ResponseEntity<Map<String, Object>> thumbnailStats() {
+        return ResponseEntity.ok(thumbnailService.stats());
+    }
+
+    @GetMapping("/perceptual-hash")
+    public ResponseEntity<Map<String, Object>> perceptualHashStats() {
+        return ResponseEntity.ok(perceptualHashService.stats());
+    }
+
+    @GetMapping("/hedging")
+    public ResponseEntity<Map<String, Object>> hedgingStats() {
+        return ResponseEntity.ok(hedgingService.stats());
+    }
+
+    @GetMapping("/adaptive-timeouts")
+    public ResponseEntity<Map<String, Object>> adaptiveTimeoutStats() {
+        return ResponseEntity.ok(adaptiveTimeoutService.stats());
+    }
+
+    @GetMapping("/circuit-breakers")
+    public ResponseEntity<Map<String, Object>> circuitBreakerStats() {
+        return ResponseEntity.ok(circuitBreakerService.stats());
+    }
+}
@@ -1,13 +1,26 @@
 package com.example.imagefetch.controller;
 
+import com.example.imagefetch.dto.BatchItemResult;
+import com.example.imagefetch.dto.ImageFetchEvent;
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageFetchResponse;
+import com.example.imagefetch.service.BatchImageFetchService;
 import com.example.imagefetch.service.ImageCollectionService;
+import com.example.imagefetch.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
 
 @Slf4j
 @RestController
@@ -16,11 +29,57 @@ import org.springframework.web.bind.annotation.*;
 public class ImageFetchController {
 
     private final ImageCollectionService imageCollectionService;
+    private final BatchImageFetchService batchImageFetchService;
+    private final ThumbnailService thumbnailService;
 
     @PostMapping("/fetch")
-    public ResponseEntity<ImageFetchResponse> fetchImages(@Valid @RequestBody ImageFetchRequest request) {
+    public Mono<ResponseEntity<ImageFetchResponse>> fetchImages(@Valid @RequestBody ImageFetchRequest request) {
         log.info("Received image fetch request for item: {}", request.itemName());
-        ImageFetchResponse response = imageCollectionService.fetchImages(request);
-        return ResponseEntity.ok(response);
+        // Returning the Mono releases the servlet thread until the response is ready
+        return imageCollectionService.fetchImagesReactive(request)
+            .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Server-Sent Events variant of /fetch: an "image" event per image as soon as its
+     * strategy produces it, then a "summary" event with the final selection and total time.
+     */
+    @PostMapping(value = "/fetch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamImages(@Valid @RequestBody ImageFetchRequest request) {
+        log.info("Received streaming image fetch request for item: {}", request.itemName());
+        return imageCollectionService.streamImages(request)
+            .map(event -> ServerSentEvent.builder(event.data())
+                .event(event.type())
+                .build());
+    }
+
+    /**
+     * Fetch images for many items. The body is a JSON array or NDJSON of fetch requests;
+     * each result is written as one NDJSON line as soon as that item completes.
+     */
+    @PostMapping(
+        value = "/fetch/batch",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<BatchItemResult> fetchImagesBatch(HttpServletRequest request) throws IOException {
+        log.info("Received batch image fetch request");
+        return batchImageFetchService.fetchAll(request.getInputStream());
+    }
+
+    /**
+     * JPEG thumbnail of a remote image that fits in a size x size box.
+     * The size is rounded up to the nearest configured variant. Only public http(s) hosts
+     * are fetched, and the response may be cached by the client but not by shared caches.
+     */
+    @GetMapping("/thumbnail")
+    public Mono<ResponseEntity<byte[]>> thumbnail(@RequestParam String url,
+                                                  @RequestParam(defaultValue = "256") int size) {
+        log.debug("Received thumbnail request for {} at {}px", url, size);
+        return thumbnailService.render(url, size)
+            .map(thumbnail -> ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                .body(thumbnail));
     }
-}
\ No newline at end of file
+}
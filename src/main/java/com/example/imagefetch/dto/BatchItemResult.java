@@ -0,0 +1,23 @@
+package com.example.imagefetch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the batch fetch output. Lines are written as items complete,
+ * so the index refers to the item's position in the request body.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(
+    long index,
+    String itemName,
+    ImageFetchResponse response,
+    String error
+) {
+    public static BatchItemResult success(long index, String itemName, ImageFetchResponse response) {
+        return new BatchItemResult(index, itemName, response, null);
+    }
+
+    public static BatchItemResult failure(long index, String itemName, String error) {
+        return new BatchItemResult(index, itemName, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.imagefetch.dto;
+
+/**
+ * Progress event of a streamed image fetch: one "image" event per image as its
+ * strategy produces it, then one "summary" event with the final selection.
+ */
+public record ImageFetchEvent(
+    String type,
+    Object data
+) {
+    public static final String IMAGE = "image";
+    public static final String SUMMARY = "summary";
+
+    public static ImageFetchEvent image(ImageResult image) {
+        return new ImageFetchEvent(IMAGE, image);
+    }
+
+    public static ImageFetchEvent summary(ImageFetchResponse response) {
+        return new ImageFetchEvent(SUMMARY, response);
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.imagefetch.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public record ImageFetchResponse(
     long totalLoadingTimeMs,
-    List<ImageResult> images
+    List<ImageResult> images,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    List<ImageScore> scores
 ) {
-}
\ No newline at end of file
+    public ImageFetchResponse(long totalLoadingTimeMs, List<ImageResult> images) {
+        this(totalLoadingTimeMs, images, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.imagefetch.dto;
+
+import java.util.Map;
+
+/**
+ * Score breakdown of a selected image, included in the response when scoring debug is on
+ */
+public record ImageScore(
+    String url,
+    double total,
+    Map<String, Double> contributions
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.imagefetch.exception;
+
+/**
+ * Exception thrown when a call is rejected because its circuit breaker is open
+ */
+public class CircuitOpenException extends ImageFetchException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+
+    /**
+     * Rejections are expected and frequent while a breaker is open; the stack trace adds nothing
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.imagefetch.exception;
+
+/**
+ * Exception thrown when an image exceeds the size limits for decoding
+ */
+public class ImageTooLargeException extends ImageFetchException {
+
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
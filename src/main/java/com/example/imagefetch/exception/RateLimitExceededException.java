@@ -0,0 +1,7 @@
+package com.example.imagefetch.exception;
+
+public class RateLimitExceededException extends ImageFetchException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers square-ish product shots over banners and strips
+ */
+@Component
+public class AspectRatioScorer implements ImageScorer {
+
+    private static final double UNKNOWN = 0.5;
+
+    @Value("${image-fetch.scoring.weights.aspect-ratio:1.0}")
+    private double weight;
+
+    @Override
+    public String name() {
+        return "aspectRatio";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        int width = Resolutions.width(image.resolution());
+        int height = Resolutions.height(image.resolution());
+        if (width == 0 || height == 0) {
+            return UNKNOWN;
+        }
+        return (double) Math.min(width, height) / Math.max(width, height);
+    }
+}
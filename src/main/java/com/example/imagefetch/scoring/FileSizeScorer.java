@@ -0,0 +1,38 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Penalizes tiny files, which are usually icons, spacers or placeholders
+ */
+@Component
+public class FileSizeScorer implements ImageScorer {
+
+    private static final double UNKNOWN = 0.5;
+
+    @Value("${image-fetch.scoring.weights.file-size:1.0}")
+    private double weight;
+
+    @Value("${image-fetch.scoring.min-good-bytes:51200}")
+    private long minGoodBytes;
+
+    @Override
+    public String name() {
+        return "fileSize";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        if (image.fileSizeBytes() <= 0) {
+            return UNKNOWN;
+        }
+        return Math.min(1.0, (double) image.fileSizeBytes() / minGoodBytes);
+    }
+}
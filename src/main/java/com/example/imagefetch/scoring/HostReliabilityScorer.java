@@ -0,0 +1,35 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.service.HostReliabilityTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers images on hosts that have served image requests reliably
+ */
+@Component
+@RequiredArgsConstructor
+public class HostReliabilityScorer implements ImageScorer {
+
+    private final HostReliabilityTracker hostReliabilityTracker;
+
+    @Value("${image-fetch.scoring.weights.host-reliability:1.0}")
+    private double weight;
+
+    @Override
+    public String name() {
+        return "hostReliability";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        return hostReliabilityTracker.reliability(image.url());
+    }
+}
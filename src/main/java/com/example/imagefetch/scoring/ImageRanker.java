@@ -0,0 +1,168 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageScore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Ranks candidate images by the weighted sum of all {@link ImageScorer} beans and selects
+ * the top N with a bounded min-heap of candidate indices. Ties keep the strategy order.
+ * With scoring disabled candidates keep their strategy order.
+ */
+@Component
+public class ImageRanker {
+
+    private final List<ImageScorer> scorers;
+
+    @Value("${image-fetch.scoring.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.scoring.debug:false}")
+    private boolean debug;
+
+    public ImageRanker(List<ImageScorer> scorers) {
+        this.scorers = List.copyOf(scorers);
+    }
+
+    /**
+     * Whether candidates are ranked by score rather than kept in strategy order
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Select up to limit candidates in descending score order
+     *
+     * @param candidates Candidates in strategy priority order
+     * @param limit      Maximum number of images to select
+     * @param accept     Called with the candidate index in rank order; returning false skips
+     *                   the candidate and the next best one takes its slot
+     * @return Selected images, with their score breakdown when debug is on
+     */
+    public Ranking select(List<ImageResult> candidates, int limit, IntPredicate accept) {
+        int count = candidates.size();
+        double[] scores = new double[count];
+        for (int i = 0; i < count; i++) {
+            scores[i] = enabled ? score(candidates.get(i)) : -i;
+        }
+
+        List<ImageResult> selected = new ArrayList<>(Math.min(limit, count));
+        boolean[] considered = new boolean[count];
+        int[] heap = new int[Math.max(0, Math.min(limit, count))];
+        while (selected.size() < limit) {
+            // Keep the best `needed` unconsidered candidates; the root is the worst of them
+            int needed = limit - selected.size();
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (considered[i]) {
+                    continue;
+                }
+                if (size < needed) {
+                    heap[size] = i;
+                    siftUp(heap, size++, scores);
+                } else if (isWorse(heap[0], i, scores)) {
+                    heap[0] = i;
+                    siftDown(heap, size, 0, scores);
+                }
+            }
+            if (size == 0) {
+                break;
+            }
+
+            // In-place heap sort of a min-heap leaves the best candidate first
+            for (int end = size - 1; end > 0; end--) {
+                swap(heap, 0, end);
+                siftDown(heap, end, 0, scores);
+            }
+            for (int k = 0; k < size; k++) {
+                int index = heap[k];
+                considered[index] = true;
+                if (accept.test(index)) {
+                    selected.add(candidates.get(index));
+                }
+            }
+        }
+
+        return new Ranking(selected, enabled && debug ? breakdown(selected) : null);
+    }
+
+    private double score(ImageResult image) {
+        double total = 0;
+        for (ImageScorer scorer : scorers) {
+            total += scorer.weight() * scorer.score(image);
+        }
+        return total;
+    }
+
+    private List<ImageScore> breakdown(List<ImageResult> selected) {
+        List<ImageScore> breakdown = new ArrayList<>(selected.size());
+        for (ImageResult image : selected) {
+            Map<String, Double> contributions = new LinkedHashMap<>();
+            double total = 0;
+            for (ImageScorer scorer : scorers) {
+                double contribution = scorer.weight() * scorer.score(image);
+                contributions.put(scorer.name(), contribution);
+                total += contribution;
+            }
+            breakdown.add(new ImageScore(image.url(), total, contributions));
+        }
+        return breakdown;
+    }
+
+    /**
+     * Lower score, or equal score and later in strategy order
+     */
+    private static boolean isWorse(int a, int b, double[] scores) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && a > b);
+    }
+
+    private static void siftUp(int[] heap, int position, double[] scores) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isWorse(heap[position], heap[parent], scores)) {
+                return;
+            }
+            swap(heap, position, parent);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int position, double[] scores) {
+        while (true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && isWorse(heap[left], heap[worst], scores)) {
+                worst = left;
+            }
+            if (right < size && isWorse(heap[right], heap[worst], scores)) {
+                worst = right;
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(heap, position, worst);
+            position = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    /**
+     * Selected images in rank order, and their score breakdown when debug is on
+     */
+    public record Ranking(List<ImageResult> images, List<ImageScore> scores) {
+    }
+}
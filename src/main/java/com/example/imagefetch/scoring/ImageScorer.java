@@ -0,0 +1,27 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+
+/**
+ * One signal of image quality. Every scorer bean is picked up by {@link ImageRanker};
+ * an image's score is the sum of weight x score over all scorers.
+ * Scorers run for every candidate of every request, so they must not block and should not allocate.
+ */
+public interface ImageScorer {
+
+    /**
+     * Name used in the debug score breakdown
+     */
+    String name();
+
+    /**
+     * Relative importance of this signal
+     */
+    double weight();
+
+    /**
+     * @param image Candidate image
+     * @return Score in [0, 1], higher is better
+     */
+    double score(ImageResult image);
+}
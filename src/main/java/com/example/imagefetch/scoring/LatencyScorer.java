@@ -0,0 +1,33 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers images that were fetched quickly, since clients will load them from the same host
+ */
+@Component
+public class LatencyScorer implements ImageScorer {
+
+    @Value("${image-fetch.scoring.weights.latency:0.5}")
+    private double weight;
+
+    @Value("${image-fetch.scoring.latency-half-score:500}")
+    private long halfScoreMs;
+
+    @Override
+    public String name() {
+        return "latency";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        return 1.0 / (1.0 + (double) Math.max(0, image.loadingTimeMs()) / halfScoreMs);
+    }
+}
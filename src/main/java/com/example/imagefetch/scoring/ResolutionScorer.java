@@ -0,0 +1,41 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers larger images, saturating at a target edge length (geometric mean of width and height)
+ */
+@Component
+public class ResolutionScorer implements ImageScorer {
+
+    /** Score for images whose resolution could not be read */
+    private static final double UNKNOWN = 0.3;
+
+    @Value("${image-fetch.scoring.weights.resolution:2.0}")
+    private double weight;
+
+    @Value("${image-fetch.scoring.target-edge:1000}")
+    private int targetEdge;
+
+    @Override
+    public String name() {
+        return "resolution";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        int width = Resolutions.width(image.resolution());
+        int height = Resolutions.height(image.resolution());
+        if (width == 0 || height == 0) {
+            return UNKNOWN;
+        }
+        return Math.min(1.0, Math.sqrt((double) width * height) / targetEdge);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.imagefetch.scoring;
+
+/**
+ * Allocation-free parsing of "800x600" resolution strings
+ */
+final class Resolutions {
+
+    private Resolutions() {
+    }
+
+    /**
+     * @return Width, or 0 when the resolution is unknown
+     */
+    static int width(String resolution) {
+        if (resolution == null) {
+            return 0;
+        }
+        int separator = resolution.indexOf('x');
+        return separator > 0 ? parse(resolution, 0, separator) : 0;
+    }
+
+    /**
+     * @return Height, or 0 when the resolution is unknown
+     */
+    static int height(String resolution) {
+        if (resolution == null) {
+            return 0;
+        }
+        int separator = resolution.indexOf('x');
+        return separator > 0 ? parse(resolution, separator + 1, resolution.length()) : 0;
+    }
+
+    private static int parse(String text, int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000) {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
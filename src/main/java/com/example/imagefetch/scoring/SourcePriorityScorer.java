@@ -0,0 +1,34 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefers images from more trusted sources: the given image URL, then the sales page, then search
+ */
+@Component
+public class SourcePriorityScorer implements ImageScorer {
+
+    @Value("${image-fetch.scoring.weights.source-priority:3.0}")
+    private double weight;
+
+    @Override
+    public String name() {
+        return "sourcePriority";
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    @Override
+    public double score(ImageResult image) {
+        return switch (image.source()) {
+            case DIRECT -> 1.0;
+            case SALES_URL -> 0.7;
+            case CHANNEL_SEARCH -> 0.4;
+        };
+    }
+}
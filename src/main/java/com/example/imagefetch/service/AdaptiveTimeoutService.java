@@ -0,0 +1,94 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-host timeouts learned from observed latency: the host's recent p99 for the kind of
+ * request times a multiplier plus a margin, clamped to bounds per call site. Hosts without
+ * enough samples use the configured static timeout. Bounds are read from image-fetch.adaptive-timeout.&lt;name&gt;.{min,max}
+ * and fall back to image-fetch.adaptive-timeout.default.*.
+ * <p>
+ * Requests that time out are sampled at their timeout, so a host that has become slower than
+ * its learned timeout pushes the timeout up step by step, by the multiplier, until its answers
+ * are sampled again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdaptiveTimeoutService {
+
+    private static final String PREFIX = "image-fetch.adaptive-timeout.";
+
+    private final HostLatencyTracker hostLatencyTracker;
+    private final Environment environment;
+
+    @Value("${image-fetch.adaptive-timeout.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.adaptive-timeout.quantile:0.99}")
+    private double quantile;
+
+    @Value("${image-fetch.adaptive-timeout.multiplier:1.5}")
+    private double multiplier;
+
+    @Value("${image-fetch.adaptive-timeout.margin:20}")
+    private long marginMs;
+
+    private final Map<String, Bounds> bounds = new ConcurrentHashMap<>();
+
+    /**
+     * Timeout for a request to the URL's host
+     *
+     * @param name       Call site, e.g. "direct-url" or "sales-url.metadata"
+     * @param kind       Kind of request whose latency the timeout follows
+     * @param url        Request URL
+     * @param configured Static timeout used while the host has too few samples
+     * @return Timeout between the call site's min and max
+     */
+    public Duration timeoutFor(String name, RequestKind kind, String url, Duration configured) {
+        if (!enabled) {
+            return configured;
+        }
+        Bounds limits = bounds.computeIfAbsent(name, this::createBounds);
+        Optional<Duration> observed = hostLatencyTracker.percentile(kind, url, quantile);
+        long timeoutMs = observed
+            .map(p99 -> (long) (p99.toMillis() * multiplier) + marginMs)
+            .orElse(configured.toMillis());
+        return Duration.ofMillis(Math.max(limits.minMs(), Math.min(limits.maxMs(), timeoutMs)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        bounds.forEach((name, limits) -> stats.put(name, Map.of("minMs", limits.minMs(), "maxMs", limits.maxMs())));
+        return stats;
+    }
+
+    private Bounds createBounds(String name) {
+        long minMs = property(name, "min", 20L);
+        long maxMs = Math.max(minMs, property(name, "max", 5000L));
+        log.info("Adaptive timeout {}: between {}ms and {}ms", name, minMs, maxMs);
+        return new Bounds(minMs, maxMs);
+    }
+
+    private long property(String name, String key, long defaultValue) {
+        Long value = environment.getProperty(PREFIX + name + "." + key, Long.class);
+        return value != null
+            ? value
+            : environment.getProperty(PREFIX + "default." + key, Long.class, defaultValue);
+    }
+
+    private record Bounds(long minMs, long maxMs) {
+    }
+}
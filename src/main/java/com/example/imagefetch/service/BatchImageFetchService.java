@@ -0,0 +1,91 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.BatchItemResult;
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Processes a stream of image fetch requests with bounded parallelism.
+ * The body is read incrementally (a JSON array or NDJSON), at most
+ * parallelism items are in flight, and each result is emitted as soon as it
+ * completes, so neither the input nor the output is held in memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchImageFetchService {
+
+    private final ImageCollectionService imageCollectionService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${image-fetch.batch.parallelism:16}")
+    private int parallelism;
+
+    /**
+     * Fetch images for every request in the body
+     *
+     * @param body JSON array or newline-delimited JSON of {@link ImageFetchRequest}
+     * @return Flux of per-item results in completion order
+     */
+    public Flux<BatchItemResult> fetchAll(InputStream body) {
+        return Flux.using(
+                () -> objectMapper.readerFor(ImageFetchRequest.class).<ImageFetchRequest>readValues(body),
+                // readValues unwraps a top-level array and also reads whitespace-separated values
+                iterator -> Flux.fromIterable(() -> iterator).index(),
+                this::closeQuietly
+            )
+            // Reading the request body blocks, keep it off the caller's thread
+            .subscribeOn(Schedulers.boundedElastic())
+            // The small prefetch makes flatMap pull items only as slots free up
+            .flatMap(item -> fetchOne(item.getT1(), item.getT2()), parallelism, 1)
+            .onErrorResume(e -> {
+                log.warn("Malformed batch input, stopping", e);
+                return Mono.just(BatchItemResult.failure(-1, null, "Malformed input: " + e.getMessage()));
+            });
+    }
+
+    private Mono<BatchItemResult> fetchOne(long index, ImageFetchRequest request) {
+        if (request == null) {
+            return Mono.just(BatchItemResult.failure(index, null, "Request item is null"));
+        }
+
+        Set<ConstraintViolation<ImageFetchRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", "));
+            return Mono.just(BatchItemResult.failure(index, request.itemName(), message));
+        }
+
+        return imageCollectionService.fetchImagesReactive(request)
+            .map(response -> BatchItemResult.success(index, request.itemName(), response))
+            .onErrorResume(e -> {
+                log.error("Batch item {} failed for item: {}", index, request.itemName(), e);
+                return Mono.just(BatchItemResult.failure(index, request.itemName(), e.getMessage()));
+            });
+    }
+
+    private void closeQuietly(MappingIterator<ImageFetchRequest> iterator) {
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            log.debug("Failed to close batch input", e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.CircuitOpenException;
+import com.example.imagefetch.exception.ImageNotAccessibleException;
+import com.example.imagefetch.exception.ImageTooLargeException;
+import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.exception.RateLimitExceededException;
+import com.example.imagefetch.util.CircuitBreaker;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers per upstream host and per strategy, so an upstream outage costs one
+ * breaker check instead of a full timeout per request. Open breakers reject calls with
+ * {@link CircuitOpenException}; for a strategy the caller skips it.
+ * Strategies answer most errors with an empty result, so they report them with
+ * {@link #reportFailures} before swallowing them.
+ * <p>
+ * Settings are read per kind ("host" or "strategy") from
+ * image-fetch.circuit-breaker.&lt;kind&gt;.{window-size,minimum-calls,failure-rate,slow-call-rate,
+ * slow-call-duration,open-duration,half-open-calls} and fall back to image-fetch.circuit-breaker.default.*.
+ */
+@Slf4j
+@Service
+public class CircuitBreakerService {
+
+    private static final String PREFIX = "image-fetch.circuit-breaker.";
+    private static final String HOST = "host";
+    private static final String STRATEGY = "strategy";
+    private static final String STRATEGY_FAILURE = CircuitBreakerService.class.getName() + ".strategyFailure";
+
+    private final Environment environment;
+    private final Cache<String, CircuitBreaker> hostBreakers;
+    private final Map<String, CircuitBreaker> strategyBreakers = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker.Config> configs = new ConcurrentHashMap<>();
+
+    @Value("${image-fetch.circuit-breaker.enabled:false}")
+    private boolean enabled;
+
+    public CircuitBreakerService(Environment environment,
+                                 @Value("${image-fetch.circuit-breaker.max-hosts:10000}") long maxHosts) {
+        this.environment = environment;
+        this.hostBreakers = Caffeine.newBuilder()
+            .maximumSize(maxHosts)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    }
+
+    /**
+     * Run a request through the breaker of the URL's host. 4xx answers count as successes,
+     * since the host is up; rate limit rejections are not counted at all.
+     *
+     * @param url  Request URL
+     * @param call Creates the request, including its timeout
+     * @return Mono of the request, or failing with {@link CircuitOpenException} while the breaker is open
+     */
+    public <T> Mono<T> executeForHost(String url, Supplier<Mono<T>> call) {
+        String host = HostReliabilityTracker.hostOf(url);
+        if (!enabled || host == null) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            CircuitBreaker breaker = hostBreakers.get(host, h -> new CircuitBreaker(config(HOST)));
+            long permit = breaker.tryAcquire();
+            if (permit == CircuitBreaker.REJECTED) {
+                return Mono.error(new CircuitOpenException(
+                    "Circuit open for host " + host + ": " + breaker.snapshot().reason()));
+            }
+            long start = System.nanoTime();
+            return Mono.defer(call)
+                .doOnSuccess(value -> breaker.record(permit, false, System.nanoTime() - start))
+                .doOnError(e -> {
+                    if (e instanceof RateLimitExceededException) {
+                        breaker.release(permit, 0);
+                    } else {
+                        breaker.record(permit, isHostFailure(e), System.nanoTime() - start);
+                    }
+                })
+                .doOnCancel(() -> breaker.release(permit, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Run a strategy through its breaker. While the breaker is open the strategy is not run;
+     * the reason is kept for diagnostics. A run fails when
+     * it errors or reported an error with {@link #reportFailures}; bad input and rejections
+     * by other breakers or rate limits are not counted.
+     *
+     * @param strategyName Strategy name, e.g. the simple class name
+     * @param execution    Creates the strategy's result stream
+     * @return Flux of the strategy's results, or failing with {@link CircuitOpenException}
+     *         without running the strategy while the breaker is open
+     */
+    public <T> Flux<T> executeForStrategy(String strategyName, Supplier<Flux<T>> execution) {
+        if (!enabled) {
+            return Flux.defer(execution);
+        }
+        return Flux.defer(() -> {
+            CircuitBreaker breaker = strategyBreakers.computeIfAbsent(strategyName,
+                name -> new CircuitBreaker(config(STRATEGY)));
+            long permit = breaker.tryAcquire();
+            if (permit == CircuitBreaker.REJECTED) {
+                return Flux.error(new CircuitOpenException(
+                    "Circuit open for strategy " + strategyName + ": " + breaker.snapshot().reason()));
+            }
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            long start = System.nanoTime();
+            return Flux.defer(execution)
+                .doOnComplete(() -> recordStrategy(breaker, permit, failure.get(), start))
+                .doOnError(e -> {
+                    failure.compareAndSet(null, e);
+                    recordStrategy(breaker, permit, failure.get(), start);
+                })
+                .doOnCancel(() -> breaker.release(permit, System.nanoTime() - start))
+                .contextWrite(Context.of(STRATEGY_FAILURE, failure));
+        });
+    }
+
+    /**
+     * Report errors of a strategy's result stream to its breaker, for use right before the
+     * strategy swallows or maps them. Errors pass through unchanged; the first one reported
+     * is the one the breaker judges. Outside {@link #executeForStrategy} nothing is recorded.
+     *
+     * @param results Strategy results
+     * @return Same results, reporting their error
+     */
+    public <T> Flux<T> reportFailures(Flux<T> results) {
+        return results.onErrorResume(e -> Flux.deferContextual(context -> {
+            report(context, e);
+            return Flux.error(e);
+        }));
+    }
+
+    /**
+     * Same as {@link #reportFailures(Flux)}, for a service called by strategies that turns
+     * errors into a fallback value
+     */
+    public <T> Mono<T> reportFailures(Mono<T> result) {
+        return result.onErrorResume(e -> Mono.deferContextual(context -> {
+            report(context, e);
+            return Mono.error(e);
+        }));
+    }
+
+    /**
+     * State, window rates and open reason of every breaker
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("strategies", describe(strategyBreakers));
+        stats.put("hosts", describe(hostBreakers.asMap()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(Map<String, CircuitBreaker> breakers) {
+        Map<String, Object> described = new TreeMap<>();
+        breakers.forEach((name, breaker) -> {
+            CircuitBreaker.Snapshot snapshot = breaker.snapshot();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("state", snapshot.state());
+            entry.put("failureRate", snapshot.failureRate());
+            entry.put("slowCallRate", snapshot.slowCallRate());
+            entry.put("calls", snapshot.calls());
+            entry.put("rejected", snapshot.rejected());
+            entry.put("inStateMs", snapshot.inState().toMillis());
+            entry.put("reason", snapshot.reason());
+            described.put(name, entry);
+        });
+        return described;
+    }
+
+    private static void report(ContextView context, Throwable e) {
+        context.<AtomicReference<Throwable>>getOrEmpty(STRATEGY_FAILURE)
+            .ifPresent(failure -> failure.compareAndSet(null, e));
+    }
+
+    private static void recordStrategy(CircuitBreaker breaker, long permit, Throwable failure, long start) {
+        if (failure == null) {
+            breaker.record(permit, false, System.nanoTime() - start);
+        } else if (isStrategyFailure(failure)) {
+            breaker.record(permit, true, System.nanoTime() - start);
+        } else {
+            breaker.release(permit, 0);
+        }
+    }
+
+    /**
+     * Whether an error says the strategy itself is failing. Invalid URLs, 4xx answers and
+     * unreadable or oversized images are the caller's input, and breaker or rate limit
+     * rejections are not calls; one user's bad URL must not open the breaker for everyone.
+     */
+    private static boolean isStrategyFailure(Throwable e) {
+        if (e instanceof InvalidUrlException
+            || e instanceof ImageNotAccessibleException
+            || e instanceof ImageTooLargeException
+            || e instanceof DataBufferLimitException
+            || e instanceof CircuitOpenException
+            || e instanceof RateLimitExceededException) {
+            return false;
+        }
+        return isHostFailure(e);
+    }
+
+    /**
+     * Whether an error says the host itself is unhealthy: 5xx answers, timeouts and
+     * connection errors do, 4xx answers do not
+     */
+    private static boolean isHostFailure(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+
+    private CircuitBreaker.Config config(String kind) {
+        return configs.computeIfAbsent(kind, this::createConfig);
+    }
+
+    private CircuitBreaker.Config createConfig(String kind) {
+        CircuitBreaker.Config config = new CircuitBreaker.Config(
+            property(kind, "window-size", Integer.class, 20),
+            property(kind, "minimum-calls", Integer.class, 10),
+            property(kind, "failure-rate", Double.class, 0.5),
+            property(kind, "slow-call-rate", Double.class, 0.8),
+            Duration.ofMillis(property(kind, "slow-call-duration", Long.class, 1000L)),
+            Duration.ofMillis(property(kind, "open-duration", Long.class, 10000L)),
+            property(kind, "half-open-calls", Integer.class, 3)
+        );
+        log.info("Circuit breakers per {}: {}", kind, config);
+        return config;
+    }
+
+    private <T> T property(String kind, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(PREFIX + kind + "." + key, type);
+        return value != null
+            ? value
+            : environment.getProperty(PREFIX + "default." + key, type, defaultValue);
+    }
+}
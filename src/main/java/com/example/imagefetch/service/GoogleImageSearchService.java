@@ -1,10 +1,16 @@
 package com.example.imagefetch.service;
 
-import lombok.RequiredArgsConstructor;
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import com.example.imagefetch.util.SingleFlight;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import com.example.imagefetch.util.TextNormalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -13,17 +19,27 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Google Custom Search API service for image search
  * Uses Google Custom Search JSON API to search for product images
+ * Concurrent searches for the same normalized query share one API call
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GoogleImageSearchService {
 
     private final WebClient webClient;
+    private final GoogleSearchCache googleSearchCache;
+    private final SingleFlight<String, List<String>> inFlightSearches;
+    private final RateLimiterService rateLimiterService;
+    private final HedgingService hedgingService;
+    private final HostLatencyTracker hostLatencyTracker;
+    private final AdaptiveTimeoutService adaptiveTimeoutService;
+    private final CircuitBreakerService circuitBreakerService;
+    private final ImageFetchMetrics imageFetchMetrics;
+    private final ObjectMapper objectMapper;
 
     @Value("${image-fetch.google-search.api-key}")
     private String apiKey;
@@ -37,9 +53,34 @@ public class GoogleImageSearchService {
     @Value("${image-fetch.max-results:3}")
     private int maxResults;
 
+    @Value("${image-fetch.hedging.google-search.enabled:false}")
+    private boolean hedgingEnabled;
+
     private static final String GOOGLE_API_URL = "https://www.googleapis.com/customsearch/v1";
     private static final int TIMEOUT_MS = 3000;
 
+    public GoogleImageSearchService(WebClient webClient,
+                                    GoogleSearchCache googleSearchCache,
+                                    SingleFlightRegistry singleFlightRegistry,
+                                    RateLimiterService rateLimiterService,
+                                    HedgingService hedgingService,
+                                    HostLatencyTracker hostLatencyTracker,
+                                    AdaptiveTimeoutService adaptiveTimeoutService,
+                                    CircuitBreakerService circuitBreakerService,
+                                    ImageFetchMetrics imageFetchMetrics,
+                                    ObjectMapper objectMapper) {
+        this.webClient = webClient;
+        this.googleSearchCache = googleSearchCache;
+        this.inFlightSearches = singleFlightRegistry.create("google-search");
+        this.rateLimiterService = rateLimiterService;
+        this.hedgingService = hedgingService;
+        this.hostLatencyTracker = hostLatencyTracker;
+        this.adaptiveTimeoutService = adaptiveTimeoutService;
+        this.circuitBreakerService = circuitBreakerService;
+        this.imageFetchMetrics = imageFetchMetrics;
+        this.objectMapper = objectMapper;
+    }
+
     /**
      * Search for images using Google Custom Search API
      *
@@ -47,59 +88,95 @@ public class GoogleImageSearchService {
      * @return List of image URLs
      */
     public List<String> searchImages(String query) {
+        List<String> imageUrls = searchImagesReactive(query).block();
+        return imageUrls != null ? imageUrls : Collections.emptyList();
+    }
+
+    /**
+     * Search for images using Google Custom Search API without blocking
+     *
+     * @param query Search query (item name + option name)
+     * @return Mono emitting the list of image URLs, empty list on any failure
+     */
+    public Mono<List<String>> searchImagesReactive(String query) {
         if (!enabled) {
             log.warn("Google Image Search is disabled");
-            return Collections.emptyList();
+            return Mono.just(Collections.emptyList());
         }
 
         if (apiKey == null || apiKey.equals("YOUR_API_KEY_HERE")) {
             log.warn("Google API key not configured");
-            return Collections.emptyList();
+            return Mono.just(Collections.emptyList());
         }
 
         if (cx == null || cx.equals("YOUR_CX_HERE")) {
             log.warn("Google Custom Search Engine ID (CX) not configured");
-            return Collections.emptyList();
+            return Mono.just(Collections.emptyList());
         }
 
-        try {
-            log.debug("Searching Google Images for query: {}", query);
-
-            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
-
-            // Call Google Custom Search API
-            Map<String, Object> response = webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                    .scheme("https")
-                    .host("www.googleapis.com")
-                    .path("/customsearch/v1")
-                    .queryParam("key", apiKey)
-                    .queryParam("cx", cx)
-                    .queryParam("q", encodedQuery)
-                    .queryParam("searchType", "image")
-                    .queryParam("num", maxResults)
-                    .queryParam("safe", "active")
-                    .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .timeout(Duration.ofMillis(TIMEOUT_MS))
-                .block();
-
-            if (response == null) {
-                log.warn("Empty response from Google Image Search");
-                return Collections.emptyList();
-            }
-
-            // Extract image URLs from response
-            List<String> imageUrls = extractImageUrls(response);
+        Optional<List<String>> cached = googleSearchCache.get(query);
+        if (cached.isPresent()) {
+            log.debug("Using cached Google Images results for query: {}", query);
+            return Mono.just(cached.get());
+        }
 
-            log.info("Found {} images from Google Image Search for query: {}", imageUrls.size(), query);
-            return imageUrls;
+        // Every caller of a failed search reports it to its strategy's breaker before falling back
+        return inFlightSearches.execute(TextNormalizer.normalize(query), () -> callSearchApi(query))
+            .transform(circuitBreakerService::reportFailures)
+            .onErrorResume(e -> {
+                log.error("Error searching Google Images for query: {}", query, e);
+                return Mono.just(Collections.emptyList());
+            });
+    }
 
-        } catch (Exception e) {
-            log.error("Error searching Google Images for query: {}", query, e);
-            return Collections.emptyList();
-        }
+    /**
+     * Call the Custom Search API and cache non-empty results.
+     * Coalesced callers share one permit of the upstream rate limit. A hedged second
+     * attempt takes its own permit without waiting, and is not sent when none is free.
+     * Errors are passed on to every coalesced caller. The response is read as bytes
+     * so its size is counted as channel-search downloads before it is decoded.
+     */
+    @SuppressWarnings("unchecked")
+    private Mono<List<String>> callSearchApi(String query) {
+        log.debug("Searching Google Images for query: {}", query);
+
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+
+        // Call Google Custom Search API
+        return rateLimiterService.acquire("google-search").then(circuitBreakerService.executeForHost(GOOGLE_API_URL,
+            () -> hedgingService.execute("google-search", RequestKind.API, GOOGLE_API_URL, hedgingEnabled, () -> webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                        .scheme("https")
+                        .host("www.googleapis.com")
+                        .path("/customsearch/v1")
+                        .queryParam("key", apiKey)
+                        .queryParam("cx", cx)
+                        .queryParam("q", encodedQuery)
+                        .queryParam("searchType", "image")
+                        .queryParam("num", maxResults)
+                        .queryParam("safe", "active")
+                        .build())
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .doOnNext(body -> imageFetchMetrics.recordDownload("google-search", ImageSource.CHANNEL_SEARCH, body.length)),
+                    () -> rateLimiterService.acquire("google-search", Duration.ZERO))
+                .transform(hostLatencyTracker.timeout(RequestKind.API, GOOGLE_API_URL,
+                    adaptiveTimeoutService.timeoutFor("google-search", RequestKind.API, GOOGLE_API_URL, Duration.ofMillis(TIMEOUT_MS))))))
+            .flatMap(body -> Mono.fromCallable(() -> objectMapper.readValue(body, Map.class)))
+            .map(response -> {
+                // Extract image URLs from response
+                List<String> imageUrls = extractImageUrls((Map<String, Object>) response);
+
+                log.info("Found {} images from Google Image Search for query: {}", imageUrls.size(), query);
+                if (!imageUrls.isEmpty()) {
+                    googleSearchCache.put(query, imageUrls);
+                }
+                return imageUrls;
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                log.warn("Empty response from Google Image Search");
+                return Collections.emptyList();
+            }));
     }
 
     /**
@@ -0,0 +1,213 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.TextNormalizer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache of Google Custom Search results keyed by normalized query.
+ * Entries are weighed by their estimated size against a byte budget (Caffeine, W-TinyLFU
+ * eviction), expire after a TTL, and are persisted to disk across restarts. Changes are
+ * flushed periodically, so a crash loses at most one flush interval of results.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoogleSearchCache {
+
+    private final ObjectMapper objectMapper;
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    @Value("${image-fetch.google-search.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.google-search.cache.max-bytes:8388608}")
+    private long maxBytes;
+
+    @Value("${image-fetch.google-search.cache.ttl:604800}")
+    private long ttlSeconds;
+
+    @Value("${image-fetch.google-search.cache.file:}")
+    private String file;
+
+    private Cache<String, Entry> entries;
+
+    /** Set on every put, cleared when a flush starts */
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        entries = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String query, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.estimatedBytes()))
+            .expireAfter(new EntryExpiry())
+            .recordStats()
+            .build();
+        imageFetchMetrics.monitorCache("google-search", entries);
+        load();
+    }
+
+    private void load() {
+        Path path = storePath();
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            List<Entry> stored = objectMapper.readValue(path.toFile(), new TypeReference<List<Entry>>() {
+            });
+            long now = System.currentTimeMillis();
+            for (Entry entry : stored) {
+                if (!entry.isExpired(now)) {
+                    entries.put(entry.query(), entry);
+                }
+            }
+            log.info("Loaded {} Google search cache entries from {}", entries.estimatedSize(), path);
+        } catch (IOException e) {
+            log.warn("Failed to load Google search cache from {}", path, e);
+        }
+    }
+
+    /**
+     * Write the cache to disk if anything was added since the last flush
+     */
+    @Scheduled(fixedDelayString = "${image-fetch.google-search.cache.flush-interval:60000}")
+    void flush() {
+        if (entries != null && dirty.compareAndSet(true, false)) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    void save() {
+        Path path = storePath();
+        if (entries == null || path == null) {
+            return;
+        }
+        // Drop expired entries and apply pending evictions before taking the snapshot
+        entries.cleanUp();
+        List<Entry> snapshot = new ArrayList<>(entries.asMap().values());
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            // Write to a temp file first so a crash never leaves a truncated cache behind
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved {} Google search cache entries to {}", snapshot.size(), path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Failed to save Google search cache to {}", path, e);
+        }
+    }
+
+    /**
+     * Look up cached image URLs for a query
+     *
+     * @param query Search query, normalized before lookup
+     * @return Cached image URLs, empty if missing or expired
+     */
+    public Optional<List<String>> get(String query) {
+        if (entries == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entries.getIfPresent(TextNormalizer.normalize(query)))
+            .map(Entry::imageUrls);
+    }
+
+    /**
+     * Cache image URLs for a query
+     *
+     * @param query     Search query, normalized before storing
+     * @param imageUrls Image URLs returned by the search
+     */
+    public void put(String query, List<String> imageUrls) {
+        if (entries == null) {
+            return;
+        }
+        Entry entry = new Entry(
+            TextNormalizer.normalize(query),
+            List.copyOf(imageUrls),
+            System.currentTimeMillis() + ttlSeconds * 1000
+        );
+        entries.put(entry.query(), entry);
+        dirty.set(true);
+    }
+
+    public long size() {
+        if (entries == null) {
+            return 0;
+        }
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private Path storePath() {
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    /**
+     * Cached search result as persisted to disk
+     */
+    record Entry(String query, List<String> imageUrls, long expiresAtMillis) {
+
+        boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+
+        /**
+         * Rough heap footprint: map node and list overhead plus UTF-16 strings
+         */
+        long estimatedBytes() {
+            long bytes = 96 + 2L * query.length();
+            for (String url : imageUrls) {
+                bytes += 48 + 2L * url.length();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Entries expire at their stored expiry time, which survives restarts
+     */
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String query, Entry entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String query, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(query, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String query, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
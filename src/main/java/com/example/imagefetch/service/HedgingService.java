@@ -0,0 +1,190 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests: when the first attempt has not answered within its host's observed p95,
+ * an identical second attempt is sent and whichever answers first wins; the other is cancelled.
+ * Each call site draws from its own budget that its hedgeable requests refill by budget-ratio,
+ * so hedging adds at most that fraction of extra load to each upstream (plus a small burst)
+ * even during an outage, and one busy call site cannot spend another's hedges.
+ * The cancelled loser is still sampled at the time it had been running, a lower bound of its
+ * latency, so hedging does not bias the host's percentiles towards the fast answers.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HedgingService {
+
+    /** Budget is kept in thousandths of a hedge so fractional ratios refill exactly */
+    private static final long HEDGE_COST = 1000;
+
+    private final HostLatencyTracker hostLatencyTracker;
+
+    @Value("${image-fetch.hedging.budget-ratio:0.05}")
+    private double budgetRatio;
+
+    @Value("${image-fetch.hedging.max-burst:10}")
+    private int maxBurst;
+
+    @Value("${image-fetch.hedging.min-delay:5}")
+    private long minDelayMs;
+
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Run a request, recording its latency for the URL's host, and hedge it when enabled
+     *
+     * @param callSite Name of the caller, e.g. "direct-url"; each has its own hedge budget
+     * @param kind     Kind of request, used to look up the host's latency
+     * @param url      Request URL
+     * @param hedge    Whether a second attempt may be sent
+     * @param attempt  Creates one attempt of the request; called once or twice
+     * @return Mono signalling whatever the first attempt to answer signals
+     */
+    public <T> Mono<T> execute(String callSite, RequestKind kind, String url, boolean hedge,
+                               Supplier<Mono<T>> attempt) {
+        return execute(callSite, kind, url, hedge, attempt, Mono::empty);
+    }
+
+    /**
+     * Same as {@link #execute(String, RequestKind, String, boolean, Supplier)}, for upstreams whose quota
+     * must also cover the hedge
+     *
+     * @param hedgePermit Taken right before the hedge is sent, e.g. a rate limit permit;
+     *                    when it fails no hedge is sent and the budget is given back
+     */
+    public <T> Mono<T> execute(String callSite, RequestKind kind, String url, boolean hedge,
+                               Supplier<Mono<T>> attempt, Supplier<Mono<Void>> hedgePermit) {
+        return Mono.defer(() -> {
+            if (!hedge) {
+                return hostLatencyTracker.time(kind, url, attempt);
+            }
+            Budget budget = budgets.computeIfAbsent(callSite, name -> new Budget());
+            budget.requests.increment();
+            budget.refill();
+
+            Optional<Duration> p95 = hostLatencyTracker.percentile(kind, url, 0.95);
+            if (p95.isEmpty()) {
+                return hostLatencyTracker.time(kind, url, attempt);
+            }
+            Duration delay = p95.get().compareTo(Duration.ofMillis(minDelayMs)) < 0
+                ? Duration.ofMillis(minDelayMs)
+                : p95.get();
+
+            AtomicBoolean answered = new AtomicBoolean();
+            Mono<T> primary = timedAttempt(kind, url, attempt, answered);
+            Mono<T> hedged = Mono.delay(delay).flatMap(tick -> {
+                if (!budget.tryTake()) {
+                    budget.exhausted.increment();
+                    return Mono.<T>never();
+                }
+                return hedgePermit.get()
+                    .thenReturn(true)
+                    .onErrorResume(e -> {
+                        budget.giveBack();
+                        budget.permitDenied.increment();
+                        return Mono.just(false);
+                    })
+                    .flatMap(permitted -> {
+                        if (!permitted) {
+                            return Mono.<T>never();
+                        }
+                        budget.sent.increment();
+                        log.debug("No answer from {} within {}ms, sending hedged request", url, delay.toMillis());
+                        return timedAttempt(kind, url, attempt, answered).doOnSuccess(value -> budget.won.increment());
+                    });
+            });
+            return Mono.firstWithSignal(primary, hedged);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> callSites = new TreeMap<>();
+        budgets.forEach((name, budget) -> callSites.put(name, budget.stats()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("callSites", callSites);
+        stats.put("trackedHosts", hostLatencyTracker.trackedHosts());
+        return stats;
+    }
+
+    /**
+     * One timed attempt. When it is cancelled because the other attempt answered first, its
+     * elapsed time is recorded as a censored sample.
+     */
+    private <T> Mono<T> timedAttempt(RequestKind kind, String url, Supplier<Mono<T>> attempt, AtomicBoolean answered) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return hostLatencyTracker.time(kind, url, attempt)
+                .doOnSuccess(value -> answered.set(true))
+                .doOnError(e -> answered.set(true))
+                .doOnCancel(() -> {
+                    if (answered.get()) {
+                        hostLatencyTracker.record(kind, url, System.nanoTime() - start);
+                    }
+                });
+        });
+    }
+
+    private final class Budget {
+
+        private final AtomicLong credit = new AtomicLong();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder won = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder permitDenied = new LongAdder();
+
+        void refill() {
+            add(Math.round(budgetRatio * HEDGE_COST));
+        }
+
+        void giveBack() {
+            add(HEDGE_COST);
+        }
+
+        boolean tryTake() {
+            while (true) {
+                long current = credit.get();
+                if (current < HEDGE_COST) {
+                    return false;
+                }
+                if (credit.compareAndSet(current, current - HEDGE_COST)) {
+                    return true;
+                }
+            }
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hedgeableRequests", requests.sum());
+            stats.put("hedgesSent", sent.sum());
+            stats.put("hedgesWon", won.sum());
+            stats.put("budgetExhausted", exhausted.sum());
+            stats.put("permitDenied", permitDenied.sum());
+            stats.put("budget", credit.get() / (double) HEDGE_COST);
+            return stats;
+        }
+
+        private void add(long amount) {
+            long cap = maxBurst * HEDGE_COST;
+            credit.accumulateAndGet(amount, (current, add) -> Math.min(cap, current + add));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.LatencyHistogram;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Observed response latency per host and kind of request, kept in a decaying {@link LatencyHistogram}.
+ * A Range probe, a full download and an HTML page from the same host take very different
+ * times, so each kind has its own histogram.
+ */
+@Component
+public class HostLatencyTracker {
+
+    /**
+     * Kind of request, each sampled separately
+     */
+    public enum RequestKind {
+        /** Range request for the first bytes of an image */
+        PROBE,
+        /** Full image download */
+        DOWNLOAD,
+        /** HTML page */
+        PAGE,
+        /** JSON API call */
+        API
+    }
+
+    private final Cache<HostKey, LatencyHistogram> hosts;
+
+    @Value("${image-fetch.latency.min-samples:20}")
+    private long minSamples;
+
+    @Value("${image-fetch.latency.window:1024}")
+    private long window;
+
+    public HostLatencyTracker(@Value("${image-fetch.latency.max-hosts:10000}") long maxHosts) {
+        this.hosts = Caffeine.newBuilder()
+            .maximumSize(maxHosts)
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+    }
+
+    /**
+     * Record how long a request to the URL's host took to answer
+     */
+    public void record(RequestKind kind, String url, long nanos) {
+        String host = HostReliabilityTracker.hostOf(url);
+        if (host != null) {
+            hosts.get(new HostKey(kind, host), key -> new LatencyHistogram(window)).record(nanos);
+        }
+    }
+
+    /**
+     * Run a request and record its latency when it answers
+     *
+     * @param kind    Kind of request
+     * @param url     Request URL
+     * @param request Creates the request, called on subscription
+     * @return Mono signalling whatever the request signals
+     */
+    public <T> Mono<T> time(RequestKind kind, String url, Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.get()
+                .doOnSuccess(value -> record(kind, url, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Timeout operator that records a request which timed out as a censored sample at the
+     * timeout: the host took at least that long. Without it a host that slowed down past its
+     * learned timeout would only ever time out and never be sampled again. A timeout shorter
+     * than the host's median says little about the host and is not sampled.
+     *
+     * @param kind    Kind of request
+     * @param url     Request URL
+     * @param timeout Timeout to apply
+     * @return Function for {@link Mono#transform}
+     */
+    public <T> Function<Mono<T>, Mono<T>> timeout(RequestKind kind, String url, Duration timeout) {
+        return request -> request
+            .timeout(timeout)
+            .doOnError(TimeoutException.class, e -> {
+                boolean informative = percentile(kind, url, 0.5)
+                    .map(median -> timeout.compareTo(median) >= 0)
+                    .orElse(true);
+                if (informative) {
+                    record(kind, url, timeout.toNanos());
+                }
+            });
+    }
+
+    /**
+     * Latency quantile of the URL's host for one kind of request
+     *
+     * @param kind     Kind of request
+     * @param url      Request URL
+     * @param quantile Quantile in (0, 1], e.g. 0.95
+     * @return Latency, empty until the host has at least min-samples recorded
+     */
+    public Optional<Duration> percentile(RequestKind kind, String url, double quantile) {
+        String host = HostReliabilityTracker.hostOf(url);
+        LatencyHistogram histogram = host == null ? null : hosts.getIfPresent(new HostKey(kind, host));
+        if (histogram == null || histogram.count() < minSamples) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(histogram.quantile(quantile)));
+    }
+
+    /**
+     * Number of host and request kind pairs with a histogram
+     */
+    public long trackedHosts() {
+        return hosts.estimatedSize();
+    }
+
+    private record HostKey(RequestKind kind, String host) {
+    }
+}
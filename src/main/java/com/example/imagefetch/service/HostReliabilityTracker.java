@@ -0,0 +1,120 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.CircuitOpenException;
+import com.example.imagefetch.exception.RateLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Tracks how often image requests to each host succeed, on every path that fetches
+ * image bytes (probe, download, perceptual hash and thumbnail source).
+ * Outcomes decay exponentially, so a host recovers from an old outage after a few good requests.
+ */
+@Component
+public class HostReliabilityTracker {
+
+    /** Weight kept by older outcomes on every new one */
+    private static final double DECAY = 0.95;
+
+    /** Prior for hosts without history: two virtual requests at this success rate */
+    private static final double PRIOR_RATE = 0.9;
+    private static final double PRIOR_WEIGHT = 2.0;
+
+    private final Cache<String, HostOutcomes> hosts;
+
+    public HostReliabilityTracker(@Value("${image-fetch.scoring.max-hosts:10000}") long maxHosts) {
+        this.hosts = Caffeine.newBuilder()
+            .maximumSize(maxHosts)
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+    }
+
+    public void recordSuccess(String url) {
+        record(url, true);
+    }
+
+    public void recordFailure(String url) {
+        record(url, false);
+    }
+
+    /**
+     * Record the outcome of an image request: a value is a success, an error a failure.
+     * Calls that never reached the host (open breaker, rate limit), bodies over the client's
+     * size cap and cancelled calls are not recorded.
+     *
+     * @param url     Image URL
+     * @param request The request, including its timeout
+     * @return The request with outcome recording attached
+     */
+    public <T> Mono<T> track(String url, Mono<T> request) {
+        return request
+            .doOnNext(value -> recordSuccess(url))
+            .doOnError(e -> {
+                if (!(e instanceof CircuitOpenException) && !(e instanceof RateLimitExceededException)
+                    && !(e instanceof DataBufferLimitException)) {
+                    recordFailure(url);
+                }
+            });
+    }
+
+    /**
+     * Smoothed success rate of the URL's host, in [0, 1]
+     */
+    public double reliability(String url) {
+        String host = hostOf(url);
+        HostOutcomes outcomes = host == null ? null : hosts.getIfPresent(host);
+        return outcomes == null ? PRIOR_RATE : outcomes.rate();
+    }
+
+    private void record(String url, boolean success) {
+        String host = hostOf(url);
+        if (host != null) {
+            hosts.get(host, h -> new HostOutcomes()).record(success);
+        }
+    }
+
+    /**
+     * Lower-cased host of an absolute URL, without parsing the whole URL
+     */
+    static String hostOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return null;
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == ':' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        return end > start ? url.substring(start, end).toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static final class HostOutcomes {
+
+        private double successes;
+        private double total;
+
+        synchronized void record(boolean success) {
+            successes = successes * DECAY + (success ? 1 : 0);
+            total = total * DECAY + 1;
+        }
+
+        synchronized double rate() {
+            return (successes + PRIOR_RATE * PRIOR_WEIGHT) / (total + PRIOR_WEIGHT);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.UrlCanonicalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for downloaded images.
+ * <p>
+ * Blobs are written once under their SHA-256 ({@code blobs/ab/cd/abcd...}), and any number
+ * of canonical URLs can alias the same blob through an append-only alias log. A download
+ * is hashed before it is handed on, so its URL aliases the content right away. When the
+ * total size exceeds the disk budget, the least recently used blobs are deleted together
+ * with their aliases; access order survives restarts through the files' modification times.
+ * The alias log is rewritten without superseded and evicted entries at startup and
+ * whenever it has grown to twice the live aliases.
+ */
+@Slf4j
+@Service
+public class ImageBlobStore {
+
+    private static final String ALIAS_FILE = "aliases.tsv";
+
+    @Value("${image-fetch.blob-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.blob-store.directory:}")
+    private String directory;
+
+    @Value("${image-fetch.blob-store.max-bytes:1073741824}")
+    private long maxBytes;
+
+    /** Canonical URL to blob hash; read without the lock, written under it */
+    private final ConcurrentHashMap<String, String> aliases = new ConcurrentHashMap<>();
+
+    /** Blob hash to the canonical URLs aliasing it, so eviction can drop them */
+    private final Map<String, Set<String>> aliasesByHash = new HashMap<>();
+
+    /** Blob hash to size, access-ordered so iteration starts at the least recently used blob */
+    private final LinkedHashMap<String, Long> blobs = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long totalBytes;
+    private long aliasLogLines;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private Path blobRoot;
+    private Path aliasFile;
+    private BufferedWriter aliasLog;
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled || directory == null || directory.isBlank()) {
+            return;
+        }
+        Path root = Path.of(directory);
+        blobRoot = root.resolve("blobs");
+        Files.createDirectories(blobRoot);
+
+        aliasFile = root.resolve(ALIAS_FILE);
+        loadBlobs();
+        loadAliases();
+        log.info("Image blob store {} opened with {} blobs ({} bytes), {} aliases",
+            root, blobs.size(), totalBytes, aliases.size());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (aliasLog != null) {
+            lock.lock();
+            try {
+                aliasLog.close();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return blobRoot != null;
+    }
+
+    /**
+     * Return the stored image for the URL, or download and store it.
+     * Disk access runs on the bounded elastic scheduler. A download is hashed before it is
+     * emitted, so {@link #hashOf(String)} knows the URL's content from then on; writing the
+     * blob does not delay the result.
+     *
+     * @param imageUrl Image URL
+     * @param download Downloads the image when it is not stored yet
+     * @return Mono emitting the image bytes
+     */
+    public Mono<byte[]> getOrDownload(String imageUrl, Supplier<Mono<byte[]>> download) {
+        if (!isEnabled()) {
+            return download.get();
+        }
+        return Mono.fromCallable(() -> get(imageUrl).orElse(null))
+            .subscribeOn(Schedulers.boundedElastic())
+            .switchIfEmpty(Mono.defer(download)
+                .doOnNext(bytes -> {
+                    String hash = sha256(bytes);
+                    alias(UrlCanonicalizer.canonicalize(imageUrl), hash);
+                    storeAsync(imageUrl, hash, bytes);
+                }));
+    }
+
+    /**
+     * Content hash the URL is known to alias, without touching the disk
+     */
+    public Optional<String> hashOf(String imageUrl) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(aliases.get(UrlCanonicalizer.canonicalize(imageUrl)));
+    }
+
+    /**
+     * Read the blob the URL aliases
+     *
+     * @param imageUrl Image URL
+     * @return Image bytes, empty if the URL is unknown or its blob was evicted
+     */
+    public Optional<byte[]> get(String imageUrl) throws IOException {
+        Optional<String> hash = hashOf(imageUrl);
+        if (hash.isEmpty() || !touch(hash.get())) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Path path = blobPath(hash.get());
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return Optional.of(bytes);
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store image bytes under their content hash and alias the URL to it
+     *
+     * @param imageUrl Image URL the bytes were downloaded from
+     * @param bytes    Image bytes
+     * @return Content hash (lower-case hex SHA-256)
+     */
+    public String put(String imageUrl, byte[] bytes) throws IOException {
+        String hash = sha256(bytes);
+        store(UrlCanonicalizer.canonicalize(imageUrl), hash, bytes, false);
+        return hash;
+    }
+
+    /**
+     * Rewrite the alias log when superseded and evicted aliases make up more than half of it
+     */
+    @Scheduled(fixedDelayString = "${image-fetch.blob-store.compact-interval:600000}")
+    void compactAliases() {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (aliasLogLines > 2L * aliases.size()) {
+                long before = aliasLogLines;
+                aliasLog.close();
+                writeCompactedAliases();
+                log.debug("Compacted alias log from {} to {} lines", before, aliasLogLines);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to compact alias log {}", aliasFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        lock.lock();
+        try {
+            stats.put("blobs", blobs.size());
+            stats.put("bytes", totalBytes);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("aliases", aliases.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private void storeAsync(String imageUrl, String hash, byte[] bytes) {
+        Mono.fromCallable(() -> {
+                store(UrlCanonicalizer.canonicalize(imageUrl), hash, bytes, true);
+                return hash;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                stored -> log.debug("Stored image blob {} for {}", stored, imageUrl),
+                e -> log.warn("Failed to store image blob for {}", imageUrl, e)
+            );
+    }
+
+    /**
+     * Write the blob unless it is already stored, alias the URL to it and log the alias
+     *
+     * @param logAlias Log the alias even if it is already known in memory, because it was
+     *                 registered ahead of the write
+     */
+    private void store(String canonicalUrl, String hash, byte[] bytes, boolean logAlias) throws IOException {
+        boolean stored = touch(hash);
+        if (stored) {
+            deduplicated.increment();
+        } else {
+            writeOnce(blobPath(hash), bytes);
+        }
+
+        lock.lock();
+        try {
+            if (!stored && blobs.put(hash, (long) bytes.length) == null) {
+                totalBytes += bytes.length;
+            }
+            // Re-alias in case the blob was evicted, and its aliases dropped, while it was being written
+            if (alias(canonicalUrl, hash) || logAlias) {
+                appendAlias(canonicalUrl, hash);
+            }
+            evictLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Point the URL at the hash in memory
+     *
+     * @return Whether the alias is new or changed
+     */
+    private boolean alias(String canonicalUrl, String hash) {
+        lock.lock();
+        try {
+            String previous = aliases.put(canonicalUrl, hash);
+            if (hash.equals(previous)) {
+                return false;
+            }
+            if (previous != null) {
+                Set<String> urls = aliasesByHash.get(previous);
+                if (urls != null && urls.remove(canonicalUrl) && urls.isEmpty()) {
+                    aliasesByHash.remove(previous);
+                }
+            }
+            aliasesByHash.computeIfAbsent(hash, key -> new HashSet<>()).add(canonicalUrl);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean touch(String hash) {
+        lock.lock();
+        try {
+            return blobs.get(hash) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeOnce(Path path, byte[] bytes) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            // A concurrent writer of the same hash wrote identical content, so replacing it is harmless
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void evictLocked() {
+        Iterator<Map.Entry<String, Long>> eldest = blobs.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            try {
+                Files.deleteIfExists(blobPath(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to delete evicted blob {}", entry.getKey(), e);
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            evictions.increment();
+            Set<String> urls = aliasesByHash.remove(entry.getKey());
+            if (urls != null) {
+                urls.forEach(url -> aliases.remove(url, entry.getKey()));
+            }
+        }
+    }
+
+    private void appendAlias(String canonicalUrl, String hash) throws IOException {
+        lock.lock();
+        try {
+            aliasLog.write(canonicalUrl);
+            aliasLog.write('\t');
+            aliasLog.write(hash);
+            aliasLog.newLine();
+            aliasLog.flush();
+            aliasLogLines++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rebuild the LRU order from the blob files, least recently used first
+     */
+    private void loadBlobs() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(blobRoot)) {
+            files = walk.filter(Files::isRegularFile)
+                .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                .sorted(Comparator.comparing(ImageBlobStore::lastModified))
+                .toList();
+        }
+        for (Path file : files) {
+            long size = Files.size(file);
+            blobs.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+    }
+
+    /**
+     * Load the alias log, drop aliases of evicted blobs and rewrite it compacted
+     */
+    private void loadAliases() throws IOException {
+        if (Files.exists(aliasFile)) {
+            for (String line : Files.readAllLines(aliasFile, StandardCharsets.UTF_8)) {
+                int tab = line.lastIndexOf('\t');
+                if (tab > 0 && blobs.containsKey(line.substring(tab + 1))) {
+                    alias(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        }
+        writeCompactedAliases();
+    }
+
+    /**
+     * Replace the alias log with one line per live alias and reopen it for appending.
+     * Called at startup or with the lock held.
+     */
+    private void writeCompactedAliases() throws IOException {
+        List<String> compacted = new ArrayList<>(aliases.size());
+        // Aliases registered ahead of a blob write are left out; the write logs them
+        aliases.forEach((url, hash) -> {
+            if (blobs.containsKey(hash)) {
+                compacted.add(url + "\t" + hash);
+            }
+        });
+        try {
+            Path temp = aliasFile.resolveSibling(ALIAS_FILE + ".tmp");
+            Files.write(temp, compacted, StandardCharsets.UTF_8);
+            Files.move(temp, aliasFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            aliasLogLines = compacted.size();
+        } finally {
+            aliasLog = Files.newBufferedWriter(aliasFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.imagefetch.service;
 
+import com.example.imagefetch.dto.ImageFetchEvent;
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageFetchResponse;
 import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.exception.CircuitOpenException;
+import com.example.imagefetch.scoring.ImageRanker;
 import com.example.imagefetch.strategy.ImageFetchStrategy;
+import com.example.imagefetch.strategy.ReactiveImageFetchStrategy;
+import com.example.imagefetch.util.UrlCanonicalizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -19,42 +34,264 @@ import java.util.List;
 public class ImageCollectionService {
 
     private final List<ImageFetchStrategy> strategies;
+    private final Scheduler strategyScheduler;
+    private final ImageResultCache imageResultCache;
+    private final ImageBlobStore imageBlobStore;
+    private final PerceptualHashService perceptualHashService;
+    private final ImageRanker imageRanker;
+    private final CircuitBreakerService circuitBreakerService;
+    private final ImageFetchMetrics imageFetchMetrics;
 
     @Value("${image-fetch.max-results:3}")
     private int maxResults;
 
+    @Value("${image-fetch.orchestration.concurrent:false}")
+    private boolean concurrent;
+
+    @Value("${image-fetch.orchestration.blocking-strategies:false}")
+    private boolean blockingStrategies;
+
     public ImageFetchResponse fetchImages(ImageFetchRequest request) {
-        log.info("Fetching images for item: {}", request.itemName());
-        long startTime = System.currentTimeMillis();
-
-        List<ImageResult> allResults = new ArrayList<>();
-
-        // Execute strategies in priority order
-        strategies.stream()
-            .sorted(Comparator.comparingInt(ImageFetchStrategy::getPriority))
-            .filter(strategy -> strategy.canHandle(request))
-            .forEach(strategy -> {
-                try {
-                    log.debug("Executing strategy: {}", strategy.getClass().getSimpleName());
-                    List<ImageResult> results = strategy.fetchImages(request);
-                    allResults.addAll(results);
-                } catch (Exception e) {
-                    log.error("Strategy {} failed", strategy.getClass().getSimpleName(), e);
+        return fetchImagesReactive(request).block();
+    }
+
+    /**
+     * Collect images from all eligible strategies without blocking the calling thread
+     *
+     * @param request Image fetch request
+     * @return Mono emitting the response once the selected images are known
+     */
+    public Mono<ImageFetchResponse> fetchImagesReactive(ImageFetchRequest request) {
+        return imageFetchMetrics.timeRequest(imageResultCache.getOrLoad(request, () -> collectImages(request, image -> { })));
+    }
+
+    /**
+     * Stream each image as soon as its strategy produces it, followed by a summary
+     * event with the final priority-ordered selection. Images from lower-priority
+     * strategies may be streamed and then left out of the summary. On a cache hit
+     * only the summary is emitted; a stale hit refreshes in the background without
+     * streaming to this subscriber.
+     *
+     * @param request Image fetch request
+     * @return Flux of image events and one final summary event
+     */
+    public Flux<ImageFetchEvent> streamImages(ImageFetchRequest request) {
+        // FluxSink serializes next() calls coming from concurrently running strategies
+        return Flux.create(sink -> {
+            Disposable collection = imageFetchMetrics.timeRequest(imageResultCache.getOrLoad(request,
+                    () -> collectImages(request, image -> sink.next(ImageFetchEvent.image(image))),
+                    () -> collectImages(request, image -> { })))
+                .subscribe(
+                    response -> sink.next(ImageFetchEvent.summary(response)),
+                    sink::error,
+                    sink::complete
+                );
+            sink.onDispose(collection);
+        });
+    }
+
+    /**
+     * Run the eligible strategies and select the top images, bypassing the result cache.
+     * Perceptual hashes of the candidates are computed while the strategies run and
+     * cancelled when the request ends.
+     *
+     * @param onImage Called for every image as soon as a strategy produces it
+     */
+    private Mono<ImageFetchResponse> collectImages(ImageFetchRequest request, Consumer<ImageResult> onImage) {
+        return Mono.defer(() -> {
+            log.info("Fetching images for item: {}", request.itemName());
+            long startTime = System.currentTimeMillis();
+            Disposable.Composite hashPrefetches = Disposables.composite();
+            Consumer<ImageResult> onCandidate = onImage
+                .andThen(result -> hashPrefetches.add(perceptualHashService.prefetch(result.url())));
+
+            List<ImageFetchStrategy> eligible = strategies.stream()
+                .sorted(Comparator.comparingInt(ImageFetchStrategy::getPriority))
+                .filter(strategy -> strategy.canHandle(request))
+                .toList();
+
+            Mono<List<ImageResult>> allResults = concurrent
+                ? executeConcurrently(eligible, request, onCandidate)
+                : executeSequentially(eligible, request, onCandidate);
+
+            return allResults
+                // Select top N images
+                .flatMap(this::selectTopNImages)
+                .map(ranking -> {
+                    long totalTime = System.currentTimeMillis() - startTime;
+                    log.info("Image fetch completed in {}ms, found {} images", totalTime, ranking.images().size());
+
+                    return new ImageFetchResponse(totalTime, ranking.images(), ranking.scores());
+                })
+                .doFinally(signal -> hashPrefetches.dispose());
+        });
+    }
+
+    /**
+     * Execute strategies one after another in priority order
+     */
+    private Mono<List<ImageResult>> executeSequentially(List<ImageFetchStrategy> eligible,
+                                                        ImageFetchRequest request,
+                                                        Consumer<ImageResult> onImage) {
+        return Flux.fromIterable(eligible)
+            .concatMap(strategy -> executeStrategy(strategy, request).doOnNext(onImage))
+            .collectList();
+    }
+
+    /**
+     * Start all eligible strategies together and merge their results in priority order.
+     * As soon as the completed strategies at the head of the priority order hold
+     * max-results images, the lower-priority strategies still running are cancelled.
+     * With scoring enabled every strategy runs to the end, so the ranker sees all candidates.
+     */
+    private Mono<List<ImageResult>> executeConcurrently(List<ImageFetchStrategy> eligible,
+                                                        ImageFetchRequest request,
+                                                        Consumer<ImageResult> onImage) {
+        if (eligible.size() <= 1) {
+            return executeSequentially(eligible, request, onImage);
+        }
+
+        List<List<ImageResult>> slots = new ArrayList<>(Collections.nCopies(eligible.size(), null));
+
+        List<Mono<StrategyOutcome>> executions = new ArrayList<>();
+        for (int i = 0; i < eligible.size(); i++) {
+            int index = i;
+            executions.add(executeStrategy(eligible.get(i), request)
+                .doOnNext(onImage)
+                .collectList()
+                .map(results -> new StrategyOutcome(index, results)));
+        }
+
+        // merge() serializes onNext signals, so the slots list is only touched by one thread at a time
+        return Flux.merge(executions)
+            .doOnNext(outcome -> slots.set(outcome.index(), outcome.results()))
+            .takeUntil(outcome -> !imageRanker.isEnabled() && hasEnoughLeadingResults(slots))
+            .then(Mono.fromSupplier(() -> {
+                List<ImageResult> allResults = new ArrayList<>();
+                for (int i = 0; i < slots.size(); i++) {
+                    List<ImageResult> results = slots.get(i);
+                    if (results != null) {
+                        allResults.addAll(results);
+                    } else {
+                        log.debug("Strategy {} cancelled, enough images already collected",
+                            eligible.get(i).getClass().getSimpleName());
+                    }
                 }
-            });
+                return allResults;
+            }));
+    }
 
-        // Select top N images
-        List<ImageResult> selectedImages = selectTopNImages(allResults);
+    /**
+     * Whether the completed strategies at the head of the priority order already
+     * provide max-results distinct images. Without scoring the selection keeps strategy
+     * order, so nothing running behind them can change it.
+     */
+    private boolean hasEnoughLeadingResults(List<List<ImageResult>> slots) {
+        Set<String> collected = new HashSet<>();
+        List<Long> collectedHashes = new ArrayList<>();
+        int distinct = 0;
+        for (List<ImageResult> results : slots) {
+            if (results == null) {
+                return false;
+            }
+            for (ImageResult result : results) {
+                if (!collected.add(identityOf(result.url()))) {
+                    continue;
+                }
+                // Only hashes that are already known are considered; unknown images count as distinct
+                Long hash = perceptualHashService.cachedHash(result.url()).orElse(null);
+                if (hash != null && isNearDuplicate(collectedHashes, hash)) {
+                    continue;
+                }
+                if (hash != null) {
+                    collectedHashes.add(hash);
+                }
+                distinct++;
+            }
+            if (distinct >= maxResults) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        long totalTime = System.currentTimeMillis() - startTime;
-        log.info("Image fetch completed in {}ms, found {} images", totalTime, selectedImages.size());
+    /**
+     * Run a single strategy. Reactive strategies are subscribed directly; blocking
+     * ones (or every strategy, with blocking-strategies) are moved to the strategy
+     * scheduler so they never block the caller. While the strategy's circuit breaker
+     * is open the strategy is skipped and its run is recorded as rejected.
+     */
+    private Flux<ImageResult> executeStrategy(ImageFetchStrategy strategy, ImageFetchRequest request) {
+        String strategyName = strategy.getClass().getSimpleName();
+        Flux<ImageResult> execution =
+            !blockingStrategies && strategy instanceof ReactiveImageFetchStrategy reactiveStrategy
+            ? Flux.defer(() -> reactiveStrategy.fetchImagesReactive(request))
+            : Mono.fromCallable(() -> strategy.fetchImages(request))
+                .subscribeOn(strategyScheduler)
+                .flatMapIterable(results -> results);
 
-        return new ImageFetchResponse(totalTime, selectedImages);
+        return circuitBreakerService.executeForStrategy(strategyName, () -> execution)
+            .doOnSubscribe(subscription -> log.debug("Executing strategy: {}", strategyName))
+            .onErrorResume(CircuitOpenException.class, e -> {
+                log.info("Skipping strategy {}: {}", strategyName, e.getMessage());
+                imageFetchMetrics.recordStrategyRejected(strategy.getSource(), request.salesChannel());
+                return Flux.empty();
+            })
+            .onErrorResume(e -> {
+                log.error("Strategy {} failed", strategyName, e);
+                return Flux.empty();
+            });
     }
 
-    private List<ImageResult> selectTopNImages(List<ImageResult> results) {
-        return results.stream()
-            .limit(maxResults)
+    /**
+     * Select the max-results best distinct images. Images are the same when their canonical
+     * URLs match or when the blob store maps them to the same content. Candidates are ranked
+     * by {@link ImageRanker}; with dedupe enabled, an image whose perceptual hash is within
+     * the Hamming threshold of a better-ranked selected image is dropped and the next
+     * candidate takes the slot. Hashes still being computed are awaited for at most the
+     * dedupe max-wait; images without one count as distinct.
+     */
+    private Mono<ImageRanker.Ranking> selectTopNImages(List<ImageResult> results) {
+        Set<String> seen = new HashSet<>();
+        List<ImageResult> distinct = results.stream()
+            .filter(result -> seen.add(identityOf(result.url())))
             .toList();
+        if (!perceptualHashService.isEnabled() || distinct.size() <= 1) {
+            return Mono.just(imageRanker.select(distinct, maxResults, index -> true));
+        }
+
+        // Hashes were prefetched as candidates arrived; the waits run in parallel
+        return Flux.fromIterable(distinct)
+            .flatMapSequential(result -> perceptualHashService.awaitHash(result.url())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty()))
+            .collectList()
+            .map(hashes -> {
+                List<Long> selectedHashes = new ArrayList<>();
+                return imageRanker.select(distinct, maxResults, index -> {
+                    Optional<Long> hash = hashes.get(index);
+                    if (hash.isEmpty()) {
+                        return true;
+                    }
+                    if (isNearDuplicate(selectedHashes, hash.get())) {
+                        log.debug("Dropping near-duplicate image: {}", distinct.get(index).url());
+                        return false;
+                    }
+                    selectedHashes.add(hash.get());
+                    return true;
+                });
+            });
+    }
+
+    private boolean isNearDuplicate(List<Long> keptHashes, long hash) {
+        return keptHashes.stream().anyMatch(kept -> perceptualHashService.isNearDuplicate(kept, hash));
+    }
+
+    private String identityOf(String imageUrl) {
+        return imageBlobStore.hashOf(imageUrl)
+            .orElseGet(() -> UrlCanonicalizer.canonicalize(imageUrl));
+    }
+
+    private record StrategyOutcome(int index, List<ImageResult> results) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageFetchResponse;
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.dto.SalesChannel;
+import com.example.imagefetch.exception.CircuitOpenException;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instrumentation of the fetch pipeline. Percentile histograms and SLO
+ * buckets are configured per meter name under management.metrics.distribution.
+ * <ul>
+ *   <li>image.fetch.request: whole collection, tagged by outcome</li>
+ *   <li>image.fetch.strategy: one strategy run, tagged by source, channel and outcome
+ *       (success, empty, timeout, rejected, error, cancelled); rejected includes runs skipped
+ *       by the strategy's circuit breaker</li>
+ *   <li>image.fetch.download.bytes: bytes downloaded over the network, per operation (image,
+ *       probe, page, google-search, perceptual-hash, thumbnail) and source; thumbnails and
+ *       perceptual hashes belong to no strategy and carry the source post-processing</li>
+ *   <li>image.fetch.html.parse and image.fetch.image.decode: CPU-bound steps</li>
+ *   <li>cache.gets, cache.evictions and cache.size: Caffeine caches, tagged by cache name</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class ImageFetchMetrics {
+
+    /** Source tag of downloads that belong to no strategy run */
+    public static final String POST_PROCESSING = "post-processing";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Time a collection of images for one request
+     */
+    public Mono<ImageFetchResponse> timeRequest(Mono<ImageFetchResponse> collection) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return collection
+                .doOnNext(response -> recordRequest(response.images().isEmpty() ? "empty" : "success", start))
+                .doOnError(e -> recordRequest(outcomeOf(e), start));
+        });
+    }
+
+    /**
+     * Time one strategy run. Apply before the strategy swallows its errors,
+     * so failures are told apart from runs that found nothing.
+     *
+     * @param source    Strategy source
+     * @param channel   Sales channel of the request, may be null
+     * @param execution Strategy results
+     * @return The same results, timed on completion, error or cancellation
+     */
+    public <T> Flux<T> timeStrategy(ImageSource source, SalesChannel channel, Flux<T> execution) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return execution
+                .doOnNext(item -> emitted.set(true))
+                .doOnComplete(() -> recordStrategy(source, channel, emitted.get() ? "success" : "empty", start))
+                .doOnError(e -> recordStrategy(source, channel, outcomeOf(e), start))
+                .doOnCancel(() -> recordStrategy(source, channel, "cancelled", start));
+        });
+    }
+
+    /**
+     * Record a strategy run skipped because its circuit breaker is open
+     */
+    public void recordStrategyRejected(ImageSource source, SalesChannel channel) {
+        recordStrategy(source, channel, "rejected", System.nanoTime());
+    }
+
+    /**
+     * Record bytes downloaded over the network (blob store hits excluded)
+     *
+     * @param operation What the bytes were fetched for, e.g. "image" or "probe"
+     * @param source    Strategy the download belongs to
+     * @param bytes     Body bytes received
+     */
+    public void recordDownload(String operation, ImageSource source, long bytes) {
+        recordDownload(operation, tagOf(source), bytes);
+    }
+
+    /**
+     * Record bytes downloaded for an image already collected, tagged with the
+     * post-processing source
+     *
+     * @param operation What the bytes were fetched for, e.g. "thumbnail"
+     * @param bytes     Body bytes received
+     */
+    public void recordPostProcessingDownload(String operation, long bytes) {
+        recordDownload(operation, POST_PROCESSING, bytes);
+    }
+
+    /**
+     * Count the bytes of a streamed response body as they arrive. They are recorded once
+     * the body ends, fails or is cancelled, so probes that stop early count what they read.
+     */
+    public Flux<DataBuffer> countDownload(String operation, ImageSource source, Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            AtomicLong bytes = new AtomicLong();
+            return body
+                .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                .doFinally(signal -> recordDownload(operation, source, bytes.get()));
+        });
+    }
+
+    private void recordDownload(String operation, String source, long bytes) {
+        DistributionSummary.builder("image.fetch.download.bytes")
+            .description("Bytes downloaded per operation and source")
+            .baseUnit("bytes")
+            .tag("operation", operation)
+            .tag("source", source)
+            .register(meterRegistry)
+            .record(bytes);
+    }
+
+    /**
+     * Bind a Caffeine cache's statistics; the cache must be built with recordStats()
+     *
+     * @param name  Cache name, e.g. "image-result"
+     * @param cache Cache to monitor
+     */
+    public <K, V> void monitorCache(String name, Cache<K, V> cache) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Record parsing HTML into a document or into image candidates
+     */
+    public void recordHtmlParse(long startNanos) {
+        Timer.builder("image.fetch.html.parse")
+            .description("HTML parsing of sales pages")
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record reading an image: "resolution" for header parsing, "thumbnail" and
+     * "perceptual-hash" for subsampled pixel decoding
+     */
+    public void recordImageDecode(String operation, long startNanos) {
+        Timer.builder("image.fetch.image.decode")
+            .description("Image header parsing and pixel decoding")
+            .tag("operation", operation)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRequest(String outcome, long startNanos) {
+        Timer.builder("image.fetch.request")
+            .description("Image collection for one request across all strategies")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordStrategy(ImageSource source, SalesChannel channel, String outcome, long startNanos) {
+        Timer.builder("image.fetch.strategy")
+            .description("One strategy run")
+            .tag("source", tagOf(source))
+            .tag("channel", channel == null ? "none" : tagOf(channel))
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcomeOf(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof CircuitOpenException) {
+            return "rejected";
+        }
+        return "error";
+    }
+
+    private static String tagOf(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
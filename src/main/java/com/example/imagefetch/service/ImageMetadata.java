@@ -0,0 +1,15 @@
+package com.example.imagefetch.service;
+
+/**
+ * Image metadata obtained by probing the first bytes of an image
+ *
+ * @param resolution    "WIDTHxHEIGHT" or "unknown" if the header could not be read
+ * @param fileSizeBytes Total size of the image, 0 if the server did not report it
+ * @param contentType   Content-Type reported by the server, may be null
+ */
+public record ImageMetadata(
+    String resolution,
+    long fileSizeBytes,
+    String contentType
+) {
+}
@@ -0,0 +1,317 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.UrlCanonicalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent image metadata index in a memory-mapped file, keyed by a 64-bit hash
+ * of the canonical image URL.
+ * <p>
+ * The table is open-addressed: a key hashes to a bucket of {@value #BUCKET_SLOTS}
+ * fixed-size records and is probed linearly within it. When a bucket is full, the
+ * record verified longest ago is replaced, so the file never grows. Records live
+ * outside the heap and survive restarts. Buckets are guarded by striped locks.
+ * <p>
+ * Record layout ({@value #RECORD_SIZE} bytes):
+ * <pre>
+ *   0  long   url hash (0 = empty slot)
+ *   8  int    width
+ *  12  int    height
+ *  16  long   file size
+ *  24  long   verified at (epoch millis)
+ *  32  long   Last-Modified (epoch millis, -1 = absent)
+ *  40  byte   content type length, 41..71 content type (US-ASCII)
+ *  72  byte   ETag length, 73..127 ETag (US-ASCII)
+ * </pre>
+ */
+@Slf4j
+@Service
+public class ImageMetadataIndex {
+
+    static final int RECORD_SIZE = 128;
+    static final int BUCKET_SLOTS = 8;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x494D4458; // "IMDX"
+    private static final int VERSION = 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final int OFFSET_HASH = 0;
+    private static final int OFFSET_WIDTH = 8;
+    private static final int OFFSET_HEIGHT = 12;
+    private static final int OFFSET_SIZE = 16;
+    private static final int OFFSET_VERIFIED_AT = 24;
+    private static final int OFFSET_LAST_MODIFIED = 32;
+    private static final int OFFSET_CONTENT_TYPE = 40;
+    private static final int MAX_CONTENT_TYPE = 31;
+    private static final int OFFSET_ETAG = 72;
+    private static final int MAX_ETAG = 55;
+
+    @Value("${image-fetch.metadata-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.metadata-index.file:}")
+    private String file;
+
+    @Value("${image-fetch.metadata-index.capacity:1048576}")
+    private int capacity;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int bucketMask;
+
+    public ImageMetadataIndex() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled || file == null || file.isBlank()) {
+            return;
+        }
+        int buckets = Integer.highestOneBit(Math.max(BUCKET_SLOTS, capacity) / BUCKET_SLOTS);
+        long fileSize = HEADER_SIZE + (long) buckets * BUCKET_SLOTS * RECORD_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Metadata index capacity too large for a single mapping: " + capacity);
+        }
+
+        Path path = Path.of(file);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        boolean compatible = channel.size() == fileSize && hasValidHeader(buckets);
+        if (!compatible) {
+            if (channel.size() > 0) {
+                log.warn("Metadata index {} has a different layout, starting empty", path);
+            }
+            // Truncating and re-extending yields a zero-filled (sparse) table
+            channel.truncate(0);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        if (!compatible) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, buckets);
+            buffer.putInt(12, RECORD_SIZE);
+        }
+        bucketMask = buckets - 1;
+        log.info("Metadata index {} opened with {} slots", path, buckets * BUCKET_SLOTS);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    /**
+     * Look up metadata for an image URL
+     *
+     * @param imageUrl Image URL, canonicalized before hashing
+     * @return Stored metadata, empty if the URL is not indexed
+     */
+    public Optional<IndexedImageMetadata> get(String imageUrl) {
+        if (buffer == null) {
+            return Optional.empty();
+        }
+        long hash = hash(imageUrl);
+        int bucket = bucketOf(hash);
+        ReentrantLock lock = lockFor(bucket);
+        lock.lock();
+        try {
+            for (int slot = 0; slot < BUCKET_SLOTS; slot++) {
+                int offset = recordOffset(bucket, slot);
+                if (buffer.getLong(offset + OFFSET_HASH) == hash) {
+                    hits.increment();
+                    return Optional.of(readRecord(offset));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store metadata for an image URL, replacing any previous record for it
+     *
+     * @param imageUrl Image URL, canonicalized before hashing
+     * @param metadata Metadata to store
+     */
+    public void put(String imageUrl, IndexedImageMetadata metadata) {
+        if (buffer == null) {
+            return;
+        }
+        long hash = hash(imageUrl);
+        int bucket = bucketOf(hash);
+        ReentrantLock lock = lockFor(bucket);
+        lock.lock();
+        try {
+            int target = -1;
+            int oldest = -1;
+            long oldestVerifiedAt = Long.MAX_VALUE;
+            for (int slot = 0; slot < BUCKET_SLOTS; slot++) {
+                int offset = recordOffset(bucket, slot);
+                long slotHash = buffer.getLong(offset + OFFSET_HASH);
+                if (slotHash == hash) {
+                    target = offset;
+                    break;
+                }
+                if (slotHash == 0) {
+                    if (target < 0) {
+                        target = offset;
+                    }
+                    continue;
+                }
+                long verifiedAt = buffer.getLong(offset + OFFSET_VERIFIED_AT);
+                if (verifiedAt < oldestVerifiedAt) {
+                    oldestVerifiedAt = verifiedAt;
+                    oldest = offset;
+                }
+            }
+            if (target < 0) {
+                target = oldest;
+                evictions.increment();
+            }
+            writeRecord(target, hash, metadata);
+            writes.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("slots", buffer == null ? 0 : (bucketMask + 1) * BUCKET_SLOTS);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("writes", writes.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private boolean hasValidHeader(int buckets) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC
+            && header.getInt(4) == VERSION
+            && header.getInt(8) == buckets
+            && header.getInt(12) == RECORD_SIZE;
+    }
+
+    private IndexedImageMetadata readRecord(int offset) {
+        return new IndexedImageMetadata(
+            buffer.getInt(offset + OFFSET_WIDTH),
+            buffer.getInt(offset + OFFSET_HEIGHT),
+            buffer.getLong(offset + OFFSET_SIZE),
+            readString(offset + OFFSET_CONTENT_TYPE),
+            readString(offset + OFFSET_ETAG),
+            buffer.getLong(offset + OFFSET_LAST_MODIFIED),
+            buffer.getLong(offset + OFFSET_VERIFIED_AT)
+        );
+    }
+
+    private void writeRecord(int offset, long hash, IndexedImageMetadata metadata) {
+        buffer.putInt(offset + OFFSET_WIDTH, metadata.width());
+        buffer.putInt(offset + OFFSET_HEIGHT, metadata.height());
+        buffer.putLong(offset + OFFSET_SIZE, metadata.fileSizeBytes());
+        buffer.putLong(offset + OFFSET_VERIFIED_AT, metadata.verifiedAtMillis());
+        buffer.putLong(offset + OFFSET_LAST_MODIFIED, metadata.lastModifiedMillis());
+        writeString(offset + OFFSET_CONTENT_TYPE, metadata.contentType(), MAX_CONTENT_TYPE);
+        writeString(offset + OFFSET_ETAG, metadata.etag(), MAX_ETAG);
+        buffer.putLong(offset + OFFSET_HASH, hash);
+    }
+
+    private String readString(int offset) {
+        int length = buffer.get(offset);
+        if (length <= 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Values that are absent, non-ASCII or too long for their field are stored as absent
+     */
+    private void writeString(int offset, String value, int maxLength) {
+        boolean fits = value != null
+            && value.length() <= maxLength
+            && StandardCharsets.US_ASCII.newEncoder().canEncode(value);
+        if (!fits) {
+            buffer.put(offset, (byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    private int bucketOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & bucketMask;
+    }
+
+    private ReentrantLock lockFor(int bucket) {
+        return locks[bucket & (LOCK_STRIPES - 1)];
+    }
+
+    private static int recordOffset(int bucket, int slot) {
+        return HEADER_SIZE + (bucket * BUCKET_SLOTS + slot) * RECORD_SIZE;
+    }
+
+    /**
+     * First 8 bytes of the SHA-256 of the canonical URL; 0 is reserved for empty slots
+     */
+    static long hash(String imageUrl) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(UrlCanonicalizer.canonicalize(imageUrl).getBytes(StandardCharsets.UTF_8));
+            long hash = ByteBuffer.wrap(digest).getLong();
+            return hash == 0 ? 1 : hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import com.example.imagefetch.util.ImageDimensionParser;
+import com.example.imagefetch.util.ImageDimensions;
+import com.example.imagefetch.util.SingleFlight;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import com.example.imagefetch.util.UrlCanonicalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Probes image metadata (resolution, file size) without downloading the whole image.
+ * Sends a Range request for the first bytes and reads the dimensions from the header.
+ * If the server ignores Range, the body is streamed and the download is cancelled
+ * as soon as the header has been parsed. Concurrent probes of the same URL share one request.
+ * Probed metadata is recorded in the persistent {@link ImageMetadataIndex}, and URLs verified
+ * recently enough are answered from it without a request. Older entries with an ETag or
+ * Last-Modified are revalidated with a conditional request; a 304 reuses the indexed metadata.
+ */
+@Slf4j
+@Service
+public class ImageMetadataProbeService {
+
+    private final WebClient webClient;
+    private final ImageDimensionParser imageDimensionParser;
+    private final SingleFlight<String, ImageMetadata> inFlightProbes;
+    private final ImageMetadataIndex imageMetadataIndex;
+    private final HostReliabilityTracker hostReliabilityTracker;
+    private final HostLatencyTracker hostLatencyTracker;
+    private final HedgingService hedgingService;
+    private final CircuitBreakerService circuitBreakerService;
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    @Value("${image-fetch.probe.range-bytes:32768}")
+    private int rangeBytes;
+
+    @Value("${image-fetch.metadata-index.max-age:86400}")
+    private long indexMaxAgeSeconds;
+
+    public ImageMetadataProbeService(WebClient webClient,
+                                     ImageDimensionParser imageDimensionParser,
+                                     SingleFlightRegistry singleFlightRegistry,
+                                     ImageMetadataIndex imageMetadataIndex,
+                                     HostReliabilityTracker hostReliabilityTracker,
+                                     HostLatencyTracker hostLatencyTracker,
+                                     HedgingService hedgingService,
+                                     CircuitBreakerService circuitBreakerService,
+                                     ImageFetchMetrics imageFetchMetrics) {
+        this.webClient = webClient;
+        this.imageDimensionParser = imageDimensionParser;
+        this.inFlightProbes = singleFlightRegistry.create("image-probe");
+        this.imageMetadataIndex = imageMetadataIndex;
+        this.hostReliabilityTracker = hostReliabilityTracker;
+        this.hostLatencyTracker = hostLatencyTracker;
+        this.hedgingService = hedgingService;
+        this.circuitBreakerService = circuitBreakerService;
+        this.imageFetchMetrics = imageFetchMetrics;
+    }
+
+    /**
+     * Probe metadata for a single image URL
+     *
+     * @param imageUrl Absolute image URL
+     * @param source   Strategy the probe runs for, tags the downloaded bytes
+     * @param timeout  Timeout for the whole probe
+     * @return Mono emitting the probed metadata, or an error if the request failed
+     */
+    public Mono<ImageMetadata> probe(String imageUrl, ImageSource source, Duration timeout) {
+        return probe(imageUrl, source, timeout, false);
+    }
+
+    /**
+     * Probe metadata for a single image URL, optionally hedging the request
+     *
+     * @param imageUrl Absolute image URL
+     * @param source   Strategy the probe runs for, tags the downloaded bytes
+     * @param timeout  Timeout for the whole probe
+     * @param hedged   Send a second request when the host has not answered within its p95
+     * @return Mono emitting the probed metadata, or an error if the request failed
+     */
+    public Mono<ImageMetadata> probe(String imageUrl, ImageSource source, Duration timeout, boolean hedged) {
+        Optional<IndexedImageMetadata> indexed = imageMetadataIndex.get(imageUrl);
+        if (indexed.isPresent() && isFresh(indexed.get())) {
+            log.debug("Using indexed image metadata for {}", imageUrl);
+            return Mono.just(indexed.get().toImageMetadata());
+        }
+        IndexedImageMetadata previous = indexed
+            .filter(metadata -> metadata.etag() != null || metadata.lastModifiedMillis() >= 0)
+            .orElse(null);
+
+        // The timeout applies per caller; the shared request is cancelled only when all callers gave up
+        return hostReliabilityTracker.track(imageUrl, circuitBreakerService.executeForHost(imageUrl,
+            () -> inFlightProbes.execute(UrlCanonicalizer.canonicalize(imageUrl),
+                    () -> hedgingService.execute("probe", RequestKind.PROBE, imageUrl, hedged, () -> webClient.get()
+                        .uri(imageUrl)
+                        .header(HttpHeaders.RANGE, "bytes=0-" + (rangeBytes - 1))
+                        .headers(headers -> addConditionalHeaders(headers, previous))
+                        .exchangeToMono(response -> readMetadata(response, imageUrl, source, previous))))
+                .transform(hostLatencyTracker.timeout(RequestKind.PROBE, imageUrl, timeout))));
+    }
+
+    private static void addConditionalHeaders(HttpHeaders headers, IndexedImageMetadata previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.etag() != null) {
+            headers.setIfNoneMatch(previous.etag());
+        }
+        if (previous.lastModifiedMillis() >= 0) {
+            headers.setIfModifiedSince(previous.lastModifiedMillis());
+        }
+    }
+
+    private boolean isFresh(IndexedImageMetadata metadata) {
+        return System.currentTimeMillis() - metadata.verifiedAtMillis() < indexMaxAgeSeconds * 1000;
+    }
+
+    private Mono<ImageMetadata> readMetadata(ClientResponse response, String imageUrl, ImageSource source,
+                                             IndexedImageMetadata previous) {
+        if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && previous != null) {
+            log.debug("Image not modified, reusing indexed metadata for {}", imageUrl);
+            IndexedImageMetadata revalidated = new IndexedImageMetadata(
+                previous.width(),
+                previous.height(),
+                previous.fileSizeBytes(),
+                previous.contentType(),
+                previous.etag(),
+                previous.lastModifiedMillis(),
+                System.currentTimeMillis()
+            );
+            imageMetadataIndex.put(imageUrl, revalidated);
+            return response.releaseBody().thenReturn(revalidated.toImageMetadata());
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createError();
+        }
+
+        boolean partial = response.statusCode().value() == HttpStatus.PARTIAL_CONTENT.value();
+        long reportedSize = partial
+            ? parseContentRangeTotal(response.headers().header(HttpHeaders.CONTENT_RANGE))
+            : response.headers().contentLength().orElse(0L);
+        String contentType = response.headers().contentType()
+            .map(MediaType::toString)
+            .orElse(null);
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        long lastModified = headers.getLastModified();
+
+        HeaderBuffer header = new HeaderBuffer(rangeBytes);
+        return imageFetchMetrics.countDownload("probe", source, response.bodyToFlux(DataBuffer.class))
+            .map(buffer -> {
+                try {
+                    header.append(buffer);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+                return header;
+            })
+            .doOnComplete(header::markComplete)
+            // Cancelling here stops the download when the server ignored the Range header
+            .takeUntil(buffer -> buffer.isFull() || buffer.dimensions().isPresent())
+            .then(Mono.fromSupplier(() -> {
+                Optional<ImageDimensions> dimensions = header.dimensions();
+                long fileSize = reportedSize > 0 ? reportedSize : header.completeSize();
+                IndexedImageMetadata metadata = new IndexedImageMetadata(
+                    dimensions.map(ImageDimensions::width).orElse(0),
+                    dimensions.map(ImageDimensions::height).orElse(0),
+                    fileSize,
+                    contentType,
+                    etag,
+                    lastModified,
+                    System.currentTimeMillis()
+                );
+                log.debug("Probed image metadata: resolution={}, size={} (read {} bytes)",
+                    metadata.resolution(), fileSize, header.length());
+
+                if (dimensions.isPresent() || fileSize > 0) {
+                    imageMetadataIndex.put(imageUrl, metadata);
+                }
+                return metadata.toImageMetadata();
+            }));
+    }
+
+    /**
+     * Parse the total length from a "bytes 0-1023/146515" Content-Range header
+     */
+    static long parseContentRangeTotal(List<String> contentRange) {
+        if (contentRange == null || contentRange.isEmpty()) {
+            return 0L;
+        }
+        String value = contentRange.get(0);
+        int slash = value.lastIndexOf('/');
+        if (slash < 0 || slash == value.length() - 1) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            // "*" means the total length is unknown
+            return 0L;
+        }
+    }
+
+    /**
+     * Accumulates the leading bytes of an image and re-parses the header as chunks arrive
+     */
+    private class HeaderBuffer {
+
+        private final byte[] bytes;
+        private int length;
+        private long totalRead;
+        private boolean complete;
+        private Optional<ImageDimensions> dimensions = Optional.empty();
+
+        HeaderBuffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void append(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            totalRead += readable;
+            int toCopy = Math.min(readable, bytes.length - length);
+            if (toCopy > 0) {
+                buffer.read(bytes, length, toCopy);
+                length += toCopy;
+                dimensions = imageDimensionParser.parse(bytes, length);
+            }
+        }
+
+        void markComplete() {
+            complete = true;
+        }
+
+        boolean isFull() {
+            return length >= bytes.length;
+        }
+
+        Optional<ImageDimensions> dimensions() {
+            return dimensions;
+        }
+
+        int length() {
+            return length;
+        }
+
+        /**
+         * Size of the body when it was read to the end without being cut off
+         */
+        long completeSize() {
+            return complete ? totalRead : 0L;
+        }
+    }
+}
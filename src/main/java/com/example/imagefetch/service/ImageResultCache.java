@@ -0,0 +1,340 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.example.imagefetch.dto.ImageFetchResponse;
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageScore;
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.dto.SalesChannel;
+import com.example.imagefetch.util.TextNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request-level result cache in front of the strategy orchestration.
+ * Bounded by the estimated heap size of its entries, with Caffeine's frequency-aware
+ * (W-TinyLFU) eviction. Each entry has a soft and a hard TTL derived from the image
+ * sources in the response; after the soft TTL the entry is served stale while a single
+ * background refresh runs. Responses with fewer than max-results images may come from a
+ * strategy that failed or timed out, so they are kept only for the short partial TTL.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageResultCache {
+
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    @Value("${image-fetch.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${image-fetch.cache.ttl.direct.soft:3600}")
+    private long directSoftTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.direct.hard:86400}")
+    private long directHardTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.sales-url.soft:1800}")
+    private long salesUrlSoftTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.sales-url.hard:21600}")
+    private long salesUrlHardTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.channel-search.soft:3600}")
+    private long channelSearchSoftTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.channel-search.hard:43200}")
+    private long channelSearchHardTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.empty:60}")
+    private long emptyTtlSeconds;
+
+    @Value("${image-fetch.cache.ttl.partial:300}")
+    private long partialTtlSeconds;
+
+    @Value("${image-fetch.max-results:3}")
+    private int maxResults;
+
+    private Cache<CacheKey, CachedResponse> cache;
+
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((CacheKey key, CachedResponse value) -> value.weight())
+            .expireAfter(new HardTtlExpiry())
+            .recordStats()
+            .build();
+        imageFetchMetrics.monitorCache("image-result", cache);
+        log.info("Image result cache enabled: maxBytes={}", maxBytes);
+    }
+
+    /**
+     * Return the cached response for the request, or load and cache it.
+     * Stale entries are returned immediately while one background refresh runs.
+     *
+     * @param request Image fetch request
+     * @param loader  Runs the strategies for a cache miss or refresh
+     * @return Mono emitting the cached or freshly loaded response
+     */
+    public Mono<ImageFetchResponse> getOrLoad(ImageFetchRequest request, Supplier<Mono<ImageFetchResponse>> loader) {
+        return getOrLoad(request, loader, loader);
+    }
+
+    /**
+     * Like {@link #getOrLoad(ImageFetchRequest, Supplier)}, but with a separate loader for
+     * background refreshes. The refresh outlives the caller, so it must not report to it.
+     *
+     * @param request       Image fetch request
+     * @param loader        Runs the strategies for a cache miss, on behalf of this caller
+     * @param refreshLoader Runs the strategies for a background refresh of a stale entry
+     * @return Mono emitting the cached or freshly loaded response
+     */
+    public Mono<ImageFetchResponse> getOrLoad(ImageFetchRequest request,
+                                              Supplier<Mono<ImageFetchResponse>> loader,
+                                              Supplier<Mono<ImageFetchResponse>> refreshLoader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        return Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            CacheKey key = CacheKey.of(request);
+            CachedResponse cached = cache.getIfPresent(key);
+
+            if (cached == null) {
+                return loader.get().doOnNext(response -> put(key, response));
+            }
+
+            if (cached.isStale(System.nanoTime())) {
+                staleHits.increment();
+                if (cached.startRefresh()) {
+                    refresh(key, cached, refreshLoader);
+                }
+            }
+
+            log.debug("Serving cached images for item: {}", request.itemName());
+            ImageFetchResponse response = cached.response();
+            return Mono.just(new ImageFetchResponse(System.currentTimeMillis() - startTime, response.images(), response.scores()));
+        });
+    }
+
+    /**
+     * Counters for hits, misses, evictions and stale-while-revalidate activity
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", cache != null);
+        if (cache == null) {
+            return stats;
+        }
+        CacheStats caffeineStats = cache.stats();
+        stats.put("entries", cache.estimatedSize());
+        stats.put("hits", caffeineStats.hitCount());
+        stats.put("misses", caffeineStats.missCount());
+        stats.put("hitRate", caffeineStats.hitRate());
+        stats.put("evictions", caffeineStats.evictionCount());
+        stats.put("evictedWeightBytes", caffeineStats.evictionWeight());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        return stats;
+    }
+
+    private void refresh(CacheKey key, CachedResponse stale, Supplier<Mono<ImageFetchResponse>> loader) {
+        refreshes.increment();
+        log.debug("Refreshing stale cache entry: {}", key);
+        // The flag is cleared however the refresh ends, so an empty or failed one is retried later
+        loader.get()
+            .doFinally(signal -> stale.refreshDone())
+            .subscribe(
+                response -> put(key, response),
+                e -> {
+                    refreshFailures.increment();
+                    log.warn("Background refresh failed for cache entry: {}", key, e);
+                }
+            );
+    }
+
+    private void put(CacheKey key, ImageFetchResponse response) {
+        long softTtlSeconds = emptyTtlSeconds;
+        long hardTtlSeconds = emptyTtlSeconds;
+        if (!response.images().isEmpty()) {
+            softTtlSeconds = Long.MAX_VALUE;
+            hardTtlSeconds = Long.MAX_VALUE;
+            // The least durable source decides how long the whole response stays valid
+            for (ImageResult image : response.images()) {
+                softTtlSeconds = Math.min(softTtlSeconds, softTtlSeconds(image.source()));
+                hardTtlSeconds = Math.min(hardTtlSeconds, hardTtlSeconds(image.source()));
+            }
+            if (response.images().size() < maxResults) {
+                softTtlSeconds = Math.min(softTtlSeconds, partialTtlSeconds);
+                hardTtlSeconds = Math.min(hardTtlSeconds, partialTtlSeconds);
+            }
+        }
+
+        long now = System.nanoTime();
+        cache.put(key, new CachedResponse(
+            response,
+            now + TimeUnit.SECONDS.toNanos(softTtlSeconds),
+            TimeUnit.SECONDS.toNanos(Math.max(softTtlSeconds, hardTtlSeconds)),
+            estimateWeight(key, response)
+        ));
+    }
+
+    private long softTtlSeconds(ImageSource source) {
+        return switch (source) {
+            case DIRECT -> directSoftTtlSeconds;
+            case SALES_URL -> salesUrlSoftTtlSeconds;
+            case CHANNEL_SEARCH -> channelSearchSoftTtlSeconds;
+        };
+    }
+
+    private long hardTtlSeconds(ImageSource source) {
+        return switch (source) {
+            case DIRECT -> directHardTtlSeconds;
+            case SALES_URL -> salesUrlHardTtlSeconds;
+            case CHANNEL_SEARCH -> channelSearchHardTtlSeconds;
+        };
+    }
+
+    /**
+     * Rough heap footprint of an entry: object headers plus the key's and the response's
+     * strings as UTF-16, including score breakdowns when scoring debug is on
+     */
+    private static int estimateWeight(CacheKey key, ImageFetchResponse response) {
+        int weight = 160
+            + stringWeight(key.itemName())
+            + stringWeight(key.optionName())
+            + stringWeight(key.imageUrl())
+            + stringWeight(key.salesUrl());
+        for (ImageResult image : response.images()) {
+            weight += 96 + stringWeight(image.url()) + stringWeight(image.resolution());
+        }
+        if (response.scores() != null) {
+            for (ImageScore score : response.scores()) {
+                weight += 64 + stringWeight(score.url()) + 48 * score.contributions().size();
+            }
+        }
+        return weight;
+    }
+
+    private static int stringWeight(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    /**
+     * Normalized request used as cache key: free text is folded with
+     * {@link TextNormalizer}, URLs are trimmed
+     */
+    record CacheKey(
+        String itemName,
+        String optionName,
+        String imageUrl,
+        String salesUrl,
+        SalesChannel salesChannel
+    ) {
+        static CacheKey of(ImageFetchRequest request) {
+            return new CacheKey(
+                TextNormalizer.normalize(request.itemName()),
+                TextNormalizer.normalize(request.optionName()),
+                trimUrl(request.imageUrl()),
+                trimUrl(request.salesUrl()),
+                request.salesChannel()
+            );
+        }
+
+        private static String trimUrl(String url) {
+            return url == null ? "" : url.strip();
+        }
+    }
+
+    private static final class CachedResponse {
+
+        private final ImageFetchResponse response;
+        private final long softExpiryNanos;
+        private final long hardTtlNanos;
+        private final int weight;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CachedResponse(ImageFetchResponse response, long softExpiryNanos, long hardTtlNanos, int weight) {
+            this.response = response;
+            this.softExpiryNanos = softExpiryNanos;
+            this.hardTtlNanos = hardTtlNanos;
+            this.weight = weight;
+        }
+
+        ImageFetchResponse response() {
+            return response;
+        }
+
+        int weight() {
+            return weight;
+        }
+
+        long hardTtlNanos() {
+            return hardTtlNanos;
+        }
+
+        boolean isStale(long nowNanos) {
+            return nowNanos - softExpiryNanos >= 0;
+        }
+
+        /**
+         * Only the first caller after the soft TTL triggers a refresh
+         */
+        boolean startRefresh() {
+            return refreshing.compareAndSet(false, true);
+        }
+
+        void refreshDone() {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Entries expire after their hard TTL, measured from the last write
+     */
+    private static final class HardTtlExpiry implements Expiry<CacheKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, CachedResponse value, long currentTime) {
+            return value.hardTtlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return value.hardTtlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
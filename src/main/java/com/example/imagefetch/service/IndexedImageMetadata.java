@@ -0,0 +1,30 @@
+package com.example.imagefetch.service;
+
+/**
+ * Image metadata as stored in the persistent {@link ImageMetadataIndex}
+ *
+ * @param width              Width in pixels, 0 if unknown
+ * @param height             Height in pixels, 0 if unknown
+ * @param fileSizeBytes      Total size of the image, 0 if unknown
+ * @param contentType        Content-Type reported by the server, may be null
+ * @param etag               ETag validator, may be null
+ * @param lastModifiedMillis Last-Modified validator as epoch millis, -1 if absent
+ * @param verifiedAtMillis   When the metadata was last confirmed against the origin
+ */
+public record IndexedImageMetadata(
+    int width,
+    int height,
+    long fileSizeBytes,
+    String contentType,
+    String etag,
+    long lastModifiedMillis,
+    long verifiedAtMillis
+) {
+    public String resolution() {
+        return width > 0 && height > 0 ? width + "x" + height : "unknown";
+    }
+
+    public ImageMetadata toImageMetadata() {
+        return new ImageMetadata(resolution(), fileSizeBytes, contentType);
+    }
+}
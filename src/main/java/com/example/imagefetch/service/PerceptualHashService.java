@@ -0,0 +1,197 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.ImageDecoder;
+import com.example.imagefetch.util.PerceptualHash;
+import com.example.imagefetch.util.SingleFlight;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import com.example.imagefetch.util.UrlCanonicalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Perceptual hashes of candidate images, used to drop near-duplicate product shots
+ * that reach the result through different URLs or strategies.
+ * Hashes are computed from a small subsampled decode and cached per canonical URL.
+ * Computation runs in the background while the strategies are still working, and sources
+ * above max-source-bytes are not hashed. Selection waits at most max-wait for hashes
+ * still being computed; images without a hash by then are treated as distinct.
+ */
+@Slf4j
+@Service
+public class PerceptualHashService {
+
+    private final WebClient webClient;
+    private final ImageBlobStore imageBlobStore;
+    private final HostReliabilityTracker hostReliabilityTracker;
+    private final SingleFlight<String, Long> inFlightHashes;
+    private final ImageFetchMetrics imageFetchMetrics;
+    private final Cache<String, Long> hashes;
+
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Value("${image-fetch.dedupe.enabled:false}")
+    private boolean enabled;
+
+    @Value("${image-fetch.dedupe.hamming-threshold:10}")
+    private int hammingThreshold;
+
+    @Value("${image-fetch.dedupe.timeout:300}")
+    private int timeoutMs;
+
+    @Value("${image-fetch.dedupe.max-wait:5}")
+    private int maxWaitMs;
+
+    @Value("${image-fetch.dedupe.max-pixels:40000000}")
+    private long maxPixels;
+
+    public PerceptualHashService(WebClient webClient,
+                                 ImageBlobStore imageBlobStore,
+                                 HostReliabilityTracker hostReliabilityTracker,
+                                 SingleFlightRegistry singleFlightRegistry,
+                                 ImageFetchMetrics imageFetchMetrics,
+                                 @Value("${image-fetch.dedupe.cache-size:100000}") long cacheSize,
+                                 @Value("${image-fetch.dedupe.max-source-bytes:2097152}") int maxSourceBytes) {
+        this.webClient = webClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxSourceBytes))
+            .build();
+        this.imageBlobStore = imageBlobStore;
+        this.hostReliabilityTracker = hostReliabilityTracker;
+        this.inFlightHashes = singleFlightRegistry.create("perceptual-hash");
+        this.imageFetchMetrics = imageFetchMetrics;
+        this.hashes = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .recordStats()
+            .build();
+        imageFetchMetrics.monitorCache("perceptual-hash", hashes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether two hashes are close enough to be the same picture
+     */
+    public boolean isNearDuplicate(long first, long second) {
+        return PerceptualHash.distance(first, second) <= hammingThreshold;
+    }
+
+    /**
+     * Hash of the image, computing it when it is not cached yet
+     *
+     * @param imageUrl Image URL
+     * @return Mono emitting the hash, empty if the image could not be hashed in time
+     */
+    public Mono<Long> hashOf(String imageUrl) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        String key = UrlCanonicalizer.canonicalize(imageUrl);
+        Long cached = hashes.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return inFlightHashes.execute(key, () -> imageBlobStore.getOrDownload(imageUrl,
+                    () -> hostReliabilityTracker.track(imageUrl, webClient.get()
+                        .uri(imageUrl)
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(Duration.ofMillis(timeoutMs))
+                        .doOnNext(bytes -> imageFetchMetrics.recordPostProcessingDownload("perceptual-hash", bytes.length))))
+                .publishOn(Schedulers.boundedElastic())
+                .map(bytes -> computeHash(key, bytes)))
+            .timeout(Duration.ofMillis(timeoutMs))
+            .onErrorResume(e -> {
+                failures.increment();
+                log.debug("Could not compute perceptual hash for {}: {}", imageUrl, e.toString());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Hash of the image if it is cached or becomes available within max-wait.
+     * Only joins a computation already in flight, never starts one.
+     *
+     * @param imageUrl Image URL
+     * @return Mono emitting the hash, empty if it is not known in time
+     */
+    public Mono<Long> awaitHash(String imageUrl) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        String key = UrlCanonicalizer.canonicalize(imageUrl);
+        Long cached = hashes.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return inFlightHashes.join(key)
+            .timeout(Duration.ofMillis(maxWaitMs), Mono.empty())
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Start computing the hash in the background, so it is ready by the time results are selected
+     *
+     * @param imageUrl Image URL
+     * @return Handle that cancels the computation, e.g. once the request it was started for ends;
+     *         a computation shared with other requests continues for them
+     */
+    public Disposable prefetch(String imageUrl) {
+        if (!enabled || hashes.getIfPresent(UrlCanonicalizer.canonicalize(imageUrl)) != null) {
+            return Disposables.disposed();
+        }
+        return hashOf(imageUrl).subscribe();
+    }
+
+    /**
+     * Hash of the image if it has already been computed
+     */
+    public Optional<Long> cachedHash(String imageUrl) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(hashes.getIfPresent(UrlCanonicalizer.canonicalize(imageUrl)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("cachedHashes", hashes.estimatedSize());
+        stats.put("hitRate", hashes.stats().hitRate());
+        stats.put("computed", computed.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    private long computeHash(String key, byte[] bytes) {
+        try {
+            long decodeStart = System.nanoTime();
+            BufferedImage decoded = ImageDecoder.decodeSubsampled(bytes, PerceptualHash.DECODE_SIZE, maxPixels);
+            imageFetchMetrics.recordImageDecode("perceptual-hash", decodeStart);
+            long hash = PerceptualHash.dHash(decoded);
+            hashes.put(key, hash);
+            computed.increment();
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,27 +1,48 @@
 package com.example.imagefetch.service;
 
+import com.example.imagefetch.util.ImageDimensionParser;
+import com.example.imagefetch.util.ImageDimensions;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.Optional;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PerformanceMetricsService {
 
+    private final ImageDimensionParser imageDimensionParser;
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    /**
+     * Read the image resolution from the header bytes only.
+     * JPEG, PNG, GIF and WebP are parsed directly; other formats fall back to the
+     * ImageIO reader metadata, which also avoids decoding the pixels.
+     */
     public String getImageResolution(byte[] imageBytes) {
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(imageBytes)) {
-            BufferedImage image = ImageIO.read(bis);
-            if (image != null) {
-                return image.getWidth() + "x" + image.getHeight();
+        if (imageBytes == null || imageBytes.length == 0) {
+            return "unknown";
+        }
+
+        long start = System.nanoTime();
+        try {
+            Optional<ImageDimensions> dimensions = imageDimensionParser.parse(imageBytes);
+            if (dimensions.isPresent()) {
+                return dimensions.get().resolution();
             }
-        } catch (IOException e) {
-            log.warn("Failed to read image resolution", e);
+
+            return readResolutionWithImageReader(imageBytes);
+        } finally {
+            imageFetchMetrics.recordImageDecode("resolution", start);
         }
-        return "unknown";
     }
 
     public long measureExecutionTime(Runnable task) {
@@ -29,4 +50,26 @@ public class PerformanceMetricsService {
         task.run();
         return System.currentTimeMillis() - startTime;
     }
-}
\ No newline at end of file
+
+    private String readResolutionWithImageReader(byte[] imageBytes) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            if (input == null) {
+                return "unknown";
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return "unknown";
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return reader.getWidth(0) + "x" + reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read image resolution", e);
+        }
+        return "unknown";
+    }
+}
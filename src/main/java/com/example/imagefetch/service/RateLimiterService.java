@@ -0,0 +1,114 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.RateLimitExceededException;
+import com.example.imagefetch.util.TokenBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named token buckets for outbound calls (one per sales channel, one per upstream API).
+ * Each bucket reads image-fetch.rate-limit.&lt;name&gt;.{rate,burst,max-wait,max-waiters}
+ * and falls back to image-fetch.rate-limit.default.*.
+ * Permits are acquired asynchronously: a caller that must wait gets a timer signal,
+ * and a caller whose wait would exceed the limit fails immediately.
+ * A waiter that cancels before its timer fires returns the permit to the bucket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateLimiterService {
+
+    private static final String PREFIX = "image-fetch.rate-limit.";
+
+    private final Environment environment;
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Acquire a permit from the named bucket, waiting at most its configured max-wait
+     *
+     * @param name Bucket name, e.g. "google-search" or "channel-search.naver"
+     * @return Mono completing when the permit may be used, or failing with
+     *         {@link RateLimitExceededException} right away if it cannot be granted in time
+     */
+    public Mono<Void> acquire(String name) {
+        return acquire(name, null);
+    }
+
+    /**
+     * Acquire a permit from the named bucket
+     *
+     * @param name    Bucket name
+     * @param maxWait Longest acceptable wait, capped by the bucket's max-wait; null for the bucket default
+     * @return Mono completing when the permit may be used
+     */
+    public Mono<Void> acquire(String name, Duration maxWait) {
+        return Mono.defer(() -> {
+            Limiter limiter = limiters.computeIfAbsent(name, this::createLimiter);
+            long maxWaitNanos = maxWait == null
+                ? limiter.maxWaitNanos()
+                : Math.min(limiter.maxWaitNanos(), maxWait.toNanos());
+
+            long waitNanos = limiter.bucket().reserve(maxWaitNanos);
+            if (waitNanos == TokenBucket.REJECTED) {
+                log.debug("Rate limit exceeded for {}", name);
+                return Mono.error(new RateLimitExceededException("Rate limit exceeded for " + name));
+            }
+            if (waitNanos == 0) {
+                return Mono.empty();
+            }
+
+            log.debug("Rate limiting {}: waiting {}ms", name, waitNanos / 1_000_000);
+            return Mono.delay(Duration.ofNanos(waitNanos))
+                .doOnCancel(() -> limiter.bucket().refund())
+                .doFinally(signal -> limiter.bucket().waiterDone())
+                .then();
+        });
+    }
+
+    /**
+     * Configured limits and current waiters per bucket
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        limiters.forEach((name, limiter) -> stats.put(name, Map.of(
+            "rate", limiter.rate(),
+            "burst", limiter.burst(),
+            "waiters", limiter.bucket().waiters()
+        )));
+        return stats;
+    }
+
+    private Limiter createLimiter(String name) {
+        double rate = property(name, "rate", Double.class, 1.0);
+        int burst = property(name, "burst", Integer.class, 1);
+        long maxWaitMs = property(name, "max-wait", Long.class, 1000L);
+        int maxWaiters = property(name, "max-waiters", Integer.class, 16);
+
+        log.info("Rate limiter {}: {} permits/s, burst {}, max wait {}ms", name, rate, burst, maxWaitMs);
+        return new Limiter(
+            new TokenBucket(rate, burst, maxWaiters),
+            rate,
+            burst,
+            Duration.ofMillis(maxWaitMs).toNanos()
+        );
+    }
+
+    private <T> T property(String name, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(PREFIX + name + "." + key, type);
+        return value != null
+            ? value
+            : environment.getProperty(PREFIX + "default." + key, type, defaultValue);
+    }
+
+    private record Limiter(TokenBucket bucket, double rate, int burst, long maxWaitNanos) {
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.config.WebClientConfig;
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import com.example.imagefetch.util.HtmlParser;
+import com.example.imagefetch.util.SingleFlight;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import com.example.imagefetch.util.UrlCanonicalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streams a sales page and extracts representative image candidates while the
+ * markup is still arriving. The head is inspected as soon as it is complete; when its
+ * og:image and twitter:image give at least min-head-images candidates the rest of the
+ * download is cancelled. Otherwise the body is read up to a configurable byte cap and
+ * parsed on its own, with the head images kept first, so no byte is parsed twice.
+ * Concurrent requests for the same page share one download.
+ * Pages that sent an ETag or Last-Modified are revalidated with a conditional GET;
+ * on 304 Not Modified the previously extracted candidates are reused without parsing.
+ */
+@Slf4j
+@Service
+public class SalesPageService {
+
+    private final WebClient webClient;
+    private final HtmlParser htmlParser;
+    private final SingleFlight<String, List<String>> inFlightPages;
+    private final Cache<String, PageValidators> validators;
+    private final HostLatencyTracker hostLatencyTracker;
+    private final CircuitBreakerService circuitBreakerService;
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    @Value("${image-fetch.sales-page.max-bytes:1048576}")
+    private int maxPageBytes;
+
+    @Value("${image-fetch.sales-page.min-head-images:1}")
+    private int minHeadImages;
+
+    public SalesPageService(WebClient webClient,
+                            HtmlParser htmlParser,
+                            SingleFlightRegistry singleFlightRegistry,
+                            HostLatencyTracker hostLatencyTracker,
+                            CircuitBreakerService circuitBreakerService,
+                            ImageFetchMetrics imageFetchMetrics,
+                            @Value("${image-fetch.sales-page.validator-cache-size:10000}") long validatorCacheSize) {
+        this.webClient = webClient;
+        this.htmlParser = htmlParser;
+        this.inFlightPages = singleFlightRegistry.create("sales-page");
+        this.hostLatencyTracker = hostLatencyTracker;
+        this.circuitBreakerService = circuitBreakerService;
+        this.imageFetchMetrics = imageFetchMetrics;
+        this.validators = Caffeine.newBuilder()
+            .maximumSize(validatorCacheSize)
+            .build();
+    }
+
+    /**
+     * Download a sales page and extract image candidates
+     *
+     * @param salesUrl  Sales page URL
+     * @param maxImages Maximum number of candidates to return
+     * @param timeout   Timeout for the page download
+     * @return Mono emitting the candidate image URLs in priority order
+     */
+    public Mono<List<String>> fetchCandidates(String salesUrl, int maxImages, Duration timeout) {
+        String key = UrlCanonicalizer.canonicalize(salesUrl) + "#" + maxImages;
+        return circuitBreakerService.executeForHost(salesUrl, () -> inFlightPages.execute(key, () -> {
+                PageValidators previous = validators.getIfPresent(key);
+                return hostLatencyTracker.time(RequestKind.PAGE, salesUrl, () -> webClient.get()
+                    .uri(salesUrl)
+                    .header(HttpHeaders.USER_AGENT, WebClientConfig.USER_AGENT)
+                    .headers(headers -> addConditionalHeaders(headers, previous))
+                    .exchangeToMono(response -> readCandidates(response, salesUrl, maxImages, key, previous)));
+            })
+            .transform(hostLatencyTracker.timeout(RequestKind.PAGE, salesUrl, timeout)));
+    }
+
+    private static void addConditionalHeaders(HttpHeaders headers, PageValidators previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.etag() != null) {
+            headers.setIfNoneMatch(previous.etag());
+        }
+        if (previous.lastModified() >= 0) {
+            headers.setIfModifiedSince(previous.lastModified());
+        }
+    }
+
+    private Mono<List<String>> readCandidates(ClientResponse response, String salesUrl, int maxImages,
+                                              String key, PageValidators previous) {
+        if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && previous != null) {
+            log.debug("Sales page not modified, reusing {} candidates: {}", previous.candidates().size(), salesUrl);
+            return response.releaseBody().thenReturn(previous.candidates());
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.createError();
+        }
+
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String etag = headers.getETag();
+        long lastModified = headers.getLastModified();
+
+        String charset = response.headers().contentType()
+            .map(MediaType::getCharset)
+            .map(Charset::name)
+            .orElse(null);
+
+        PageBuffer page = new PageBuffer(salesUrl, charset, maxImages);
+        return imageFetchMetrics.countDownload("page", ImageSource.SALES_URL, response.bodyToFlux(DataBuffer.class))
+            .map(buffer -> {
+                try {
+                    page.append(buffer);
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+                return page;
+            })
+            // Cancelling here stops the rest of the page download
+            .takeUntil(PageBuffer::isDone)
+            .then(Mono.fromCallable(page::candidates))
+            .doOnNext(candidates -> {
+                if (etag != null || lastModified >= 0) {
+                    validators.put(key, new PageValidators(etag, lastModified, candidates));
+                }
+            });
+    }
+
+    /**
+     * Validators of the last full page download and the candidates extracted from it
+     */
+    private record PageValidators(String etag, long lastModified, List<String> candidates) {
+    }
+
+    /**
+     * Accumulates the page bytes and tracks where the head ends
+     */
+    private class PageBuffer {
+
+        private static final byte[] HEAD_END = ascii("</head");
+        private static final byte[] BODY_START = ascii("<body");
+        private static final byte[] COMMENT_START = ascii("<!--");
+        private static final byte[] COMMENT_END = ascii("-->");
+        private static final byte[] SCRIPT_START = ascii("<script");
+        private static final byte[] SCRIPT_END = ascii("</script");
+        private static final byte[] STYLE_START = ascii("<style");
+        private static final byte[] STYLE_END = ascii("</style");
+
+        /** Bytes needed after a candidate position to recognise any token plus the byte after it */
+        private static final int LOOKAHEAD = SCRIPT_END.length + 1;
+
+        /** Where the head scan is, so "</head" inside scripts and comments is not taken for the tag */
+        private enum Context { MARKUP, COMMENT, SCRIPT, STYLE }
+
+        private final String baseUri;
+        private final String charset;
+        private final int maxImages;
+
+        private byte[] bytes = new byte[16 * 1024];
+        private int length;
+        private int headEnd = -1;
+        private int scanned;
+        private Context context = Context.MARKUP;
+        private List<String> headImages = List.of();
+        private String headCharset;
+
+        PageBuffer(String baseUri, String charset, int maxImages) {
+            this.baseUri = baseUri;
+            this.charset = charset;
+            this.maxImages = maxImages;
+        }
+
+        void append(DataBuffer buffer) {
+            int toCopy = Math.min(buffer.readableByteCount(), maxPageBytes - length);
+            if (toCopy <= 0) {
+                return;
+            }
+            if (length + toCopy > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(maxPageBytes, Math.max(bytes.length * 2, length + toCopy)));
+            }
+            buffer.read(bytes, length, toCopy);
+            length += toCopy;
+
+            if (headEnd < 0) {
+                headEnd = findHeadEnd();
+                if (headEnd >= 0) {
+                    headImages = extractHeadImages();
+                }
+            }
+        }
+
+        /**
+         * Done once the head produced enough images or the byte cap is reached
+         */
+        boolean isDone() {
+            return hasEnoughHeadImages() || length >= maxPageBytes;
+        }
+
+        /**
+         * At least one head image, and min-head-images of them unless fewer were requested
+         */
+        private boolean hasEnoughHeadImages() {
+            return !headImages.isEmpty() && headImages.size() >= Math.min(minHeadImages, maxImages);
+        }
+
+        List<String> candidates() throws IOException {
+            if (hasEnoughHeadImages()) {
+                log.debug("Found {} head images after reading {} bytes of {}", headImages.size(), length, baseUri);
+                return headImages;
+            }
+            if (headEnd < 0) {
+                log.debug("No end of head in {} bytes of {}, parsing them", length, baseUri);
+                return htmlParser.selectRepresentativeImages(parse(0, length, charset), maxImages);
+            }
+            // The head was parsed already, only the body bytes are left; head images keep their place
+            log.debug("{} head images in {}, parsing {} bytes of the body", headImages.size(), baseUri, length - headEnd);
+            Document body = parse(headEnd, length, headCharset);
+            Set<String> images = new LinkedHashSet<>(headImages);
+            images.addAll(htmlParser.selectRepresentativeImages(body, maxImages + headImages.size()));
+            return images.stream().limit(maxImages).toList();
+        }
+
+        private List<String> extractHeadImages() {
+            headCharset = charset;
+            try {
+                Document head = parse(0, headEnd, charset);
+                // The body bytes are parsed separately later, so keep what the head declared
+                headCharset = head.charset().name();
+                List<String> images = new ArrayList<>();
+                htmlParser.extractOgImage(head).ifPresent(images::add);
+                if (images.size() < maxImages) {
+                    htmlParser.extractTwitterImage(head)
+                        .filter(url -> !images.contains(url))
+                        .ifPresent(images::add);
+                }
+                return images;
+            } catch (IOException e) {
+                log.debug("Could not parse head of {}", baseUri, e);
+                return List.of();
+            }
+        }
+
+        private Document parse(int from, int to, String charset) throws IOException {
+            long start = System.nanoTime();
+            // A null charset lets jsoup detect it from the BOM or a meta charset tag
+            Document document = Jsoup.parse(new ByteArrayInputStream(bytes, from, to - from), charset, baseUri);
+            imageFetchMetrics.recordHtmlParse(start);
+            return document;
+        }
+
+        /**
+         * Find the closing head tag, or the opening body tag for pages that omit it.
+         * Comments and script and style contents are skipped. The scan resumes where the
+         * previous chunk left off and waits for more bytes when a token may be cut in two.
+         */
+        private int findHeadEnd() {
+            while (scanned < length) {
+                byte b = bytes[scanned];
+                if (b != '<' && !(b == '-' && context == Context.COMMENT)) {
+                    scanned++;
+                    continue;
+                }
+                if (scanned + LOOKAHEAD > length) {
+                    return -1;
+                }
+                int skip = 1;
+                switch (context) {
+                    case MARKUP -> {
+                        if (matchesIgnoreCase(scanned, HEAD_END) || matchesIgnoreCase(scanned, BODY_START)) {
+                            return scanned;
+                        }
+                        if (matchesIgnoreCase(scanned, COMMENT_START)) {
+                            context = Context.COMMENT;
+                            skip = COMMENT_START.length;
+                        } else if (matchesTag(scanned, SCRIPT_START)) {
+                            context = Context.SCRIPT;
+                            skip = SCRIPT_START.length;
+                        } else if (matchesTag(scanned, STYLE_START)) {
+                            context = Context.STYLE;
+                            skip = STYLE_START.length;
+                        }
+                    }
+                    case COMMENT -> {
+                        if (matchesIgnoreCase(scanned, COMMENT_END)) {
+                            context = Context.MARKUP;
+                            skip = COMMENT_END.length;
+                        }
+                    }
+                    case SCRIPT -> {
+                        if (matchesTag(scanned, SCRIPT_END)) {
+                            context = Context.MARKUP;
+                            skip = SCRIPT_END.length;
+                        }
+                    }
+                    case STYLE -> {
+                        if (matchesTag(scanned, STYLE_END)) {
+                            context = Context.MARKUP;
+                            skip = STYLE_END.length;
+                        }
+                    }
+                }
+                scanned += skip;
+            }
+            return -1;
+        }
+
+        /**
+         * Token followed by the end of the tag name, so "<scripts" is not taken for "<script"
+         */
+        private boolean matchesTag(int offset, byte[] token) {
+            if (!matchesIgnoreCase(offset, token) || offset + token.length >= length) {
+                return false;
+            }
+            byte next = bytes[offset + token.length];
+            return next == '>' || next == '/' || Character.isWhitespace(next);
+        }
+
+        private boolean matchesIgnoreCase(int offset, byte[] token) {
+            if (offset + token.length > length) {
+                return false;
+            }
+            for (int i = 0; i < token.length; i++) {
+                if (Character.toLowerCase(bytes[offset + i]) != token[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static byte[] ascii(String token) {
+        return token.getBytes(StandardCharsets.US_ASCII);
+    }
+}
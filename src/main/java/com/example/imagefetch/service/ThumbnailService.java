@@ -0,0 +1,337 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.ImageNotAccessibleException;
+import com.example.imagefetch.exception.RateLimitExceededException;
+import com.example.imagefetch.util.ImageDecoder;
+import com.example.imagefetch.util.ImageValidator;
+import com.example.imagefetch.util.SingleFlight;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import com.example.imagefetch.util.UrlCanonicalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Renders fixed-size JPEG thumbnails of remote images.
+ * <p>
+ * The source is decoded with {@link ImageDecoder} source subsampling, so only about twice
+ * the thumbnail size is ever held in memory, and images whose header declares more than
+ * max-pixels are rejected before any pixel buffer is allocated. Decoding runs on a bounded
+ * worker pool with a bounded queue; requests beyond it fail fast. Rendered variants are
+ * cached on disk keyed by canonical source URL and size.
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final WebClient webClient;
+    private final ImageValidator imageValidator;
+    private final ImageBlobStore imageBlobStore;
+    private final HostReliabilityTracker hostReliabilityTracker;
+    private final SingleFlight<String, byte[]> inFlightRenders;
+    private final ImageFetchMetrics imageFetchMetrics;
+
+    @Value("${image-fetch.thumbnail.sizes:64,128,256,512}")
+    private List<Integer> sizes;
+
+    @Value("${image-fetch.thumbnail.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${image-fetch.thumbnail.timeout:3000}")
+    private int timeoutMs;
+
+    @Value("${image-fetch.thumbnail.workers:4}")
+    private int workers;
+
+    @Value("${image-fetch.thumbnail.queue-size:64}")
+    private int queueSize;
+
+    @Value("${image-fetch.thumbnail.directory:}")
+    private String directory;
+
+    @Value("${image-fetch.thumbnail.max-bytes:268435456}")
+    private long maxBytes;
+
+    private Scheduler workerPool;
+    private Path cacheRoot;
+
+    /** File name to size of the cached variants; evicted entries delete their file */
+    private Cache<String, Long> cachedVariants;
+
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ThumbnailService(WebClient webClient,
+                            ImageValidator imageValidator,
+                            ImageBlobStore imageBlobStore,
+                            HostReliabilityTracker hostReliabilityTracker,
+                            SingleFlightRegistry singleFlightRegistry,
+                            ImageFetchMetrics imageFetchMetrics,
+                            @Value("${image-fetch.thumbnail.max-source-bytes:20971520}") int maxSourceBytes) {
+        // Originals are far larger than the default 256KB in-memory codec limit
+        this.webClient = webClient.mutate()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxSourceBytes))
+            .build();
+        this.imageValidator = imageValidator;
+        this.imageBlobStore = imageBlobStore;
+        this.hostReliabilityTracker = hostReliabilityTracker;
+        this.inFlightRenders = singleFlightRegistry.create("thumbnail");
+        this.imageFetchMetrics = imageFetchMetrics;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        workerPool = Schedulers.newBoundedElastic(workers, queueSize, "thumbnail");
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+        cacheRoot = Path.of(directory);
+        Files.createDirectories(cacheRoot);
+        cachedVariants = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String name, Long size) -> (int) Math.min(Integer.MAX_VALUE, size))
+            .removalListener((String name, Long size, RemovalCause cause) -> {
+                if (cause.wasEvicted()) {
+                    deleteVariant(name);
+                }
+            })
+            .build();
+
+        // Re-register existing variants oldest first, so the newest are the last to go
+        try (Stream<Path> walk = Files.walk(cacheRoot)) {
+            walk.filter(Files::isRegularFile)
+                .filter(path -> path.getFileName().toString().endsWith(".jpg"))
+                .sorted(Comparator.comparing(ThumbnailService::lastModified))
+                .forEach(path -> cachedVariants.put(path.getFileName().toString(), path.toFile().length()));
+        }
+        log.info("Thumbnail cache {} opened with {} variants", cacheRoot, cachedVariants.estimatedSize());
+    }
+
+    @PreDestroy
+    void close() {
+        if (workerPool != null) {
+            workerPool.dispose();
+        }
+    }
+
+    /**
+     * Render a thumbnail that fits in a size x size box, or read it from the disk cache.
+     * The requested size is rounded up to the nearest configured variant.
+     *
+     * @param imageUrl      Source image URL
+     * @param requestedSize Requested bounding box in pixels
+     * @return Mono emitting the JPEG bytes
+     */
+    public Mono<byte[]> render(String imageUrl, int requestedSize) {
+        // Resolving the host blocks, and only public http(s) hosts may be fetched
+        return Mono.fromRunnable(() -> imageValidator.validatePublicImageUrl(imageUrl))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(Mono.defer(() -> {
+                int size = variantFor(requestedSize);
+                String name = variantName(imageUrl, size);
+
+                return inFlightRenders.execute(name, () -> Mono.fromCallable(() -> readCached(name).orElse(null))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .switchIfEmpty(Mono.defer(() -> downloadSource(imageUrl))
+                        .flatMap(source -> Mono.fromCallable(() -> renderAndStore(name, source, size))
+                            .subscribeOn(workerPool)
+                            .onErrorMap(RejectedExecutionException.class, e -> {
+                                rejected.increment();
+                                return new RateLimitExceededException("Too many thumbnails are being rendered");
+                            }))));
+            }));
+    }
+
+    /**
+     * Smallest configured variant that is at least the requested size, or the largest one
+     */
+    int variantFor(int requestedSize) {
+        return sizes.stream()
+            .sorted()
+            .filter(size -> size >= requestedSize)
+            .findFirst()
+            .orElseGet(() -> sizes.stream().max(Integer::compare).orElse(requestedSize));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("diskCacheEnabled", cachedVariants != null);
+        stats.put("cachedVariants", cachedVariants != null ? cachedVariants.estimatedSize() : 0);
+        stats.put("diskHits", diskHits.sum());
+        stats.put("renders", renders.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    /**
+     * Reuse an original the strategies already stored, but never store one just for a thumbnail
+     */
+    private Mono<byte[]> downloadSource(String imageUrl) {
+        return Mono.fromCallable(() -> imageBlobStore.get(imageUrl).orElse(null))
+            .subscribeOn(Schedulers.boundedElastic())
+            .switchIfEmpty(Mono.defer(() -> hostReliabilityTracker.track(imageUrl, webClient.get()
+                .uri(imageUrl)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .doOnNext(bytes -> imageFetchMetrics.recordPostProcessingDownload("thumbnail", bytes.length)))))
+            .onErrorMap(WebClientResponseException.class,
+                e -> new ImageNotAccessibleException("Failed to download image: " + imageUrl, e))
+            .switchIfEmpty(Mono.error(() -> new ImageNotAccessibleException("Empty image data from URL: " + imageUrl)));
+    }
+
+    private byte[] renderAndStore(String name, byte[] source, int size) throws IOException {
+        renders.increment();
+        long decodeStart = System.nanoTime();
+        BufferedImage decoded = ImageDecoder.decodeSubsampled(source, size, maxPixels);
+        imageFetchMetrics.recordImageDecode("thumbnail", decodeStart);
+        byte[] thumbnail = encodeJpeg(scale(decoded, size));
+        writeCached(name, thumbnail);
+        return thumbnail;
+    }
+
+    /**
+     * Scale down to fit the size x size box, keeping the aspect ratio; never scales up
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel, so transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private Optional<byte[]> readCached(String name) throws IOException {
+        if (cachedVariants == null || cachedVariants.getIfPresent(name) == null) {
+            return Optional.empty();
+        }
+        try {
+            byte[] thumbnail = Files.readAllBytes(variantPath(name));
+            diskHits.increment();
+            return Optional.of(thumbnail);
+        } catch (NoSuchFileException e) {
+            cachedVariants.invalidate(name);
+            return Optional.empty();
+        }
+    }
+
+    private void writeCached(String name, byte[] thumbnail) {
+        if (cachedVariants == null) {
+            return;
+        }
+        Path path = variantPath(name);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), name, ".tmp");
+            try {
+                Files.write(temp, thumbnail);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            cachedVariants.put(name, (long) thumbnail.length);
+        } catch (IOException e) {
+            log.warn("Failed to cache thumbnail {}", name, e);
+        }
+    }
+
+    private void deleteVariant(String name) {
+        try {
+            Files.deleteIfExists(variantPath(name));
+        } catch (IOException e) {
+            log.warn("Failed to delete evicted thumbnail {}", name, e);
+        }
+    }
+
+    private Path variantPath(String name) {
+        return cacheRoot.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static String variantName(String imageUrl, int size) {
+        String key = UrlCanonicalizer.canonicalize(imageUrl) + "\n" + size;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + ".jpg";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -4,28 +4,43 @@ import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageResult;
 import com.example.imagefetch.dto.ImageSource;
 import com.example.imagefetch.dto.SalesChannel;
+import com.example.imagefetch.service.CircuitBreakerService;
 import com.example.imagefetch.service.GoogleImageSearchService;
+import com.example.imagefetch.service.ImageFetchMetrics;
 import com.example.imagefetch.service.PerformanceMetricsService;
+import com.example.imagefetch.service.RateLimiterService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Locale;
 
 @Slf4j
 @Component
-public class ChannelSearchImageFetchStrategy implements ImageFetchStrategy {
+public class ChannelSearchImageFetchStrategy implements ReactiveImageFetchStrategy {
 
     private final GoogleImageSearchService googleImageSearchService;
     private final PerformanceMetricsService performanceMetricsService;
+    private final RateLimiterService rateLimiterService;
+    private final ImageFetchMetrics imageFetchMetrics;
+    private final CircuitBreakerService circuitBreakerService;
 
     public ChannelSearchImageFetchStrategy(GoogleImageSearchService googleImageSearchService,
-                                           PerformanceMetricsService performanceMetricsService) {
+                                           PerformanceMetricsService performanceMetricsService,
+                                           RateLimiterService rateLimiterService,
+                                           ImageFetchMetrics imageFetchMetrics,
+                                           CircuitBreakerService circuitBreakerService) {
         this.googleImageSearchService = googleImageSearchService;
         this.performanceMetricsService = performanceMetricsService;
+        this.rateLimiterService = rateLimiterService;
+        this.imageFetchMetrics = imageFetchMetrics;
+        this.circuitBreakerService = circuitBreakerService;
     }
 
     @Value("${image-fetch.strategy.channel-search.timeout:300}")
@@ -34,10 +49,6 @@ public class ChannelSearchImageFetchStrategy implements ImageFetchStrategy {
     @Value("${image-fetch.max-results:3}")
     private int maxResults;
 
-    // Rate limiting: 1 request/second = 1000ms between requests (enhanced for anti-crawling)
-    private static final long MIN_REQUEST_INTERVAL_MS = 1000;
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
-
     @Override
     public boolean canHandle(ImageFetchRequest request) {
         return request.salesChannel() != null &&
@@ -45,68 +56,37 @@ public class ChannelSearchImageFetchStrategy implements ImageFetchStrategy {
     }
 
     @Override
-    public List<ImageResult> fetchImages(ImageFetchRequest request) {
+    public Flux<ImageResult> fetchImagesReactive(ImageFetchRequest request) {
         if (!canHandle(request)) {
-            return Collections.emptyList();
+            return Flux.empty();
         }
 
         SalesChannel channel = request.salesChannel();
         log.debug("Fetching images from channel search: {}", channel);
 
-        try {
-            // Apply rate limiting
-            applyRateLimiting();
-
-            // Build search query
-            String query = buildSearchQuery(request);
-
-            log.debug("Searching images for query: {} on channel: {}", query, channel);
-
-            long startTime = System.currentTimeMillis();
-
-            // Use Google Image Search API
-            // Add "product" keyword to improve search relevance
-            List<String> imageUrls = googleImageSearchService.searchImages(query + " product");
-
-            if (imageUrls.isEmpty()) {
-                log.warn("No images found for query: {} on channel: {}", query, channel);
-                return Collections.emptyList();
-            }
-
-            // Limit to top N images
-            List<String> topImages = imageUrls.stream()
-                .limit(maxResults)
-                .toList();
-
-            // Build results with metadata
-            List<ImageResult> results = new ArrayList<>();
-            for (String imageUrl : topImages) {
-                long loadingTime = System.currentTimeMillis() - startTime;
-
-                // Handle protocol-relative URLs
-                String fullImageUrl = imageUrl;
-                if (imageUrl.startsWith("//")) {
-                    fullImageUrl = "https:" + imageUrl;
-                }
-
-                ImageResult result = new ImageResult(
-                    fullImageUrl,
-                    ImageSource.CHANNEL_SEARCH,
-                    loadingTime,
-                    "unknown",
-                    0L
-                );
-                results.add(result);
-            }
-
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.info("Successfully fetched {} images from channel {} in {}ms", results.size(), channel, totalTime);
-            return results;
-
-        } catch (Exception e) {
-            log.error("Error fetching images from channel search: {}", channel, e);
-            return Collections.emptyList();
-        }
+        // Build search query
+        String query = buildSearchQuery(request);
+
+        // Per-channel rate limit; fails fast instead of waiting past the strategy timeout
+        return rateLimiterService.acquire("channel-search." + channel.name().toLowerCase(Locale.ROOT),
+                Duration.ofMillis(timeoutMs))
+            .then(Mono.defer(() -> {
+                log.debug("Searching images for query: {} on channel: {}", query, channel);
+
+                long startTime = System.currentTimeMillis();
+
+                // Use Google Image Search API
+                // Add "product" keyword to improve search relevance
+                return googleImageSearchService.searchImagesReactive(query + " product")
+                    .map(imageUrls -> buildResults(imageUrls, startTime, query, channel));
+            }))
+            .flatMapIterable(results -> results)
+            .transform(execution -> imageFetchMetrics.timeStrategy(ImageSource.CHANNEL_SEARCH, channel, execution))
+            .transform(circuitBreakerService::reportFailures)
+            .onErrorResume(e -> {
+                log.error("Error fetching images from channel search: {}", channel, e);
+                return Flux.empty();
+            });
     }
 
     @Override
@@ -114,26 +94,46 @@ public class ChannelSearchImageFetchStrategy implements ImageFetchStrategy {
         return 3;
     }
 
-    /**
-     * Apply rate limiting: max 5 requests/second
-     */
-    private void applyRateLimiting() {
-        long now = System.currentTimeMillis();
-        long lastRequest = lastRequestTime.get();
-        long timeSinceLastRequest = now - lastRequest;
-
-        if (timeSinceLastRequest < MIN_REQUEST_INTERVAL_MS) {
-            long sleepTime = MIN_REQUEST_INTERVAL_MS - timeSinceLastRequest;
-            try {
-                log.debug("Rate limiting: sleeping for {}ms", sleepTime);
-                Thread.sleep(sleepTime);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.warn("Rate limiting sleep interrupted", e);
+    @Override
+    public ImageSource getSource() {
+        return ImageSource.CHANNEL_SEARCH;
+    }
+
+    private List<ImageResult> buildResults(List<String> imageUrls, long startTime, String query, SalesChannel channel) {
+        if (imageUrls.isEmpty()) {
+            log.warn("No images found for query: {} on channel: {}", query, channel);
+            return Collections.emptyList();
+        }
+
+        // Limit to top N images
+        List<String> topImages = imageUrls.stream()
+            .limit(maxResults)
+            .toList();
+
+        // Build results with metadata
+        List<ImageResult> results = new ArrayList<>();
+        for (String imageUrl : topImages) {
+            long loadingTime = System.currentTimeMillis() - startTime;
+
+            // Handle protocol-relative URLs
+            String fullImageUrl = imageUrl;
+            if (imageUrl.startsWith("//")) {
+                fullImageUrl = "https:" + imageUrl;
             }
+
+            ImageResult result = new ImageResult(
+                fullImageUrl,
+                ImageSource.CHANNEL_SEARCH,
+                loadingTime,
+                "unknown",
+                0L
+            );
+            results.add(result);
         }
 
-        lastRequestTime.set(System.currentTimeMillis());
+        long totalTime = System.currentTimeMillis() - startTime;
+        log.info("Successfully fetched {} images from channel {} in {}ms", results.size(), channel, totalTime);
+        return results;
     }
 
     /**
@@ -3,7 +3,15 @@ package com.example.imagefetch.strategy;
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageResult;
 import com.example.imagefetch.dto.ImageSource;
-import com.example.imagefetch.exception.TimeoutException;
+import com.example.imagefetch.service.AdaptiveTimeoutService;
+import com.example.imagefetch.service.CircuitBreakerService;
+import com.example.imagefetch.service.HedgingService;
+import com.example.imagefetch.service.HostLatencyTracker;
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import com.example.imagefetch.service.HostReliabilityTracker;
+import com.example.imagefetch.service.ImageFetchMetrics;
+import com.example.imagefetch.service.ImageBlobStore;
+import com.example.imagefetch.service.ImageMetadataProbeService;
 import com.example.imagefetch.service.PerformanceMetricsService;
 import com.example.imagefetch.util.ImageValidator;
 import lombok.RequiredArgsConstructor;
@@ -11,78 +19,117 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class DirectUrlImageFetchStrategy implements ImageFetchStrategy {
+public class DirectUrlImageFetchStrategy implements ReactiveImageFetchStrategy {
 
     private final WebClient webClient;
     private final ImageValidator imageValidator;
     private final PerformanceMetricsService performanceMetricsService;
+    private final ImageMetadataProbeService imageMetadataProbeService;
+    private final ImageBlobStore imageBlobStore;
+    private final HedgingService hedgingService;
+    private final HostLatencyTracker hostLatencyTracker;
+    private final AdaptiveTimeoutService adaptiveTimeoutService;
+    private final CircuitBreakerService circuitBreakerService;
+    private final HostReliabilityTracker hostReliabilityTracker;
+    private final ImageFetchMetrics imageFetchMetrics;
 
     @Value("${image-fetch.strategy.direct-url.timeout:500}")
     private int timeoutMs;
 
+    @Value("${image-fetch.probe.enabled:false}")
+    private boolean probeEnabled;
+
+    @Value("${image-fetch.hedging.direct-url.enabled:false}")
+    private boolean hedgingEnabled;
+
     @Override
     public boolean canHandle(ImageFetchRequest request) {
         return request.imageUrl() != null && !request.imageUrl().isBlank();
     }
 
     @Override
-    public List<ImageResult> fetchImages(ImageFetchRequest request) {
+    public Flux<ImageResult> fetchImagesReactive(ImageFetchRequest request) {
         if (!canHandle(request)) {
-            return Collections.emptyList();
+            return Flux.empty();
         }
 
         String imageUrl = request.imageUrl();
         log.debug("Fetching image from direct URL: {}", imageUrl);
 
-        try {
-            imageValidator.validateImageUrl(imageUrl);
-
-            long startTime = System.currentTimeMillis();
-
-            byte[] imageBytes = webClient.get()
-                .uri(imageUrl)
-                .retrieve()
-                .bodyToMono(byte[].class)
-                .timeout(Duration.ofMillis(timeoutMs))
-                .block();
-
-            long loadingTime = System.currentTimeMillis() - startTime;
+        return Mono.defer(() -> {
+                imageValidator.validateImageUrl(imageUrl);
+
+                long startTime = System.currentTimeMillis();
+                Duration timeout = adaptiveTimeoutService.timeoutFor("direct-url",
+                    probeEnabled ? RequestKind.PROBE : RequestKind.DOWNLOAD, imageUrl, Duration.ofMillis(timeoutMs));
+
+                return probeEnabled
+                    ? probeImage(imageUrl, startTime, timeout)
+                    : downloadImage(imageUrl, startTime, timeout);
+            })
+            .doOnNext(result -> log.info("Successfully fetched direct URL image in {}ms, size: {} bytes",
+                result.loadingTimeMs(), result.fileSizeBytes()))
+            .switchIfEmpty(Mono.fromRunnable(() -> log.warn("Empty image data from URL: {}", imageUrl)))
+            .flux()
+            .transform(execution -> imageFetchMetrics.timeStrategy(ImageSource.DIRECT, request.salesChannel(), execution))
+            .transform(circuitBreakerService::reportFailures)
+            .onErrorResume(e -> {
+                log.error("Error fetching image from direct URL: {}", imageUrl, e);
+                return Flux.empty();
+            });
+    }
 
-            if (imageBytes == null || imageBytes.length == 0) {
-                log.warn("Empty image data from URL: {}", imageUrl);
-                return Collections.emptyList();
-            }
+    @Override
+    public int getPriority() {
+        return 1;
+    }
 
-            String resolution = performanceMetricsService.getImageResolution(imageBytes);
-            long fileSize = imageBytes.length;
+    @Override
+    public ImageSource getSource() {
+        return ImageSource.DIRECT;
+    }
 
-            ImageResult result = new ImageResult(
+    /**
+     * Download the whole image (or read it from the blob store) and read its metadata
+     */
+    private Mono<ImageResult> downloadImage(String imageUrl, long startTime, Duration timeout) {
+        return imageBlobStore.getOrDownload(imageUrl, () -> hostReliabilityTracker.track(imageUrl,
+                circuitBreakerService.executeForHost(imageUrl,
+                    () -> hedgingService.execute("direct-url", RequestKind.DOWNLOAD, imageUrl, hedgingEnabled, () -> webClient.get()
+                            .uri(imageUrl)
+                            .retrieve()
+                            .bodyToMono(byte[].class))
+                        .transform(hostLatencyTracker.timeout(RequestKind.DOWNLOAD, imageUrl, timeout))
+                        .doOnNext(imageBytes -> imageFetchMetrics.recordDownload("image", ImageSource.DIRECT, imageBytes.length)))))
+            .filter(imageBytes -> imageBytes.length > 0)
+            .map(imageBytes -> new ImageResult(
                 imageUrl,
                 ImageSource.DIRECT,
-                loadingTime,
-                resolution,
-                fileSize
-            );
-
-            log.info("Successfully fetched direct URL image in {}ms, size: {} bytes", loadingTime, fileSize);
-            return List.of(result);
-
-        } catch (Exception e) {
-            log.error("Error fetching image from direct URL: {}", imageUrl, e);
-            return Collections.emptyList();
-        }
+                System.currentTimeMillis() - startTime,
+                performanceMetricsService.getImageResolution(imageBytes),
+                imageBytes.length
+            ));
     }
 
-    @Override
-    public int getPriority() {
-        return 1;
+    /**
+     * Read resolution and size from the first bytes of the image instead of downloading it
+     */
+    private Mono<ImageResult> probeImage(String imageUrl, long startTime, Duration timeout) {
+        return imageMetadataProbeService.probe(imageUrl, ImageSource.DIRECT, timeout, hedgingEnabled)
+            .map(metadata -> new ImageResult(
+                imageUrl,
+                ImageSource.DIRECT,
+                System.currentTimeMillis() - startTime,
+                metadata.resolution(),
+                metadata.fileSizeBytes()
+            ));
     }
-}
\ No newline at end of file
+}
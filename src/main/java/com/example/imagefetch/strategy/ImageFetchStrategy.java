@@ -2,10 +2,12 @@ package com.example.imagefetch.strategy;
 
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageSource;
 import java.util.List;
 
 public interface ImageFetchStrategy {
     boolean canHandle(ImageFetchRequest request);
     List<ImageResult> fetchImages(ImageFetchRequest request);
     int getPriority();
+    ImageSource getSource();
 }
\ No newline at end of file
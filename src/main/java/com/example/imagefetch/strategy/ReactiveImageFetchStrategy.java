@@ -0,0 +1,23 @@
+package com.example.imagefetch.strategy;
+
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.example.imagefetch.dto.ImageResult;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link ImageFetchStrategy}.
+ * Implementations emit their results without blocking the calling thread; the
+ * blocking {@link #fetchImages(ImageFetchRequest)} is derived from the reactive one.
+ */
+public interface ReactiveImageFetchStrategy extends ImageFetchStrategy {
+
+    Flux<ImageResult> fetchImagesReactive(ImageFetchRequest request);
+
+    @Override
+    default List<ImageResult> fetchImages(ImageFetchRequest request) {
+        List<ImageResult> results = fetchImagesReactive(request).collectList().block();
+        return results != null ? results : List.of();
+    }
+}
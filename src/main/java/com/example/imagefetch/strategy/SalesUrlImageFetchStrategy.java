@@ -1,36 +1,70 @@
 package com.example.imagefetch.strategy;
 
+import com.example.imagefetch.config.WebClientConfig;
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageResult;
 import com.example.imagefetch.dto.ImageSource;
 import com.example.imagefetch.exception.ImageNotAccessibleException;
 import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.service.AdaptiveTimeoutService;
+import com.example.imagefetch.service.CircuitBreakerService;
+import com.example.imagefetch.service.HostLatencyTracker;
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import com.example.imagefetch.service.HostReliabilityTracker;
+import com.example.imagefetch.service.ImageFetchMetrics;
+import com.example.imagefetch.service.ImageBlobStore;
+import com.example.imagefetch.service.ImageMetadataProbeService;
 import com.example.imagefetch.service.PerformanceMetricsService;
+import com.example.imagefetch.service.SalesPageService;
 import com.example.imagefetch.util.HtmlParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class SalesUrlImageFetchStrategy implements ImageFetchStrategy {
+public class SalesUrlImageFetchStrategy implements ReactiveImageFetchStrategy {
 
     private final WebClient webClient;
     private final HtmlParser htmlParser;
     private final PerformanceMetricsService performanceMetricsService;
+    private final ImageMetadataProbeService imageMetadataProbeService;
+    private final SalesPageService salesPageService;
+    private final ImageBlobStore imageBlobStore;
+    private final AdaptiveTimeoutService adaptiveTimeoutService;
+    private final HostLatencyTracker hostLatencyTracker;
+    private final HostReliabilityTracker hostReliabilityTracker;
+    private final CircuitBreakerService circuitBreakerService;
+    private final ImageFetchMetrics imageFetchMetrics;
 
     @Value("${image-fetch.strategy.sales-url.timeout:200}")
     private int timeoutMs;
 
+    @Value("${image-fetch.strategy.sales-url.metadata-timeout:50}")
+    private int metadataTimeoutMs;
+
+    @Value("${image-fetch.strategy.sales-url.metadata-concurrency:4}")
+    private int metadataConcurrency;
+
+    @Value("${image-fetch.probe.enabled:false}")
+    private boolean probeEnabled;
+
+    @Value("${image-fetch.sales-page.streaming:false}")
+    private boolean streamingEnabled;
+
     @Value("${image-fetch.max-results:3}")
     private int maxResults;
 
@@ -40,75 +74,111 @@ public class SalesUrlImageFetchStrategy implements ImageFetchStrategy {
     }
 
     @Override
-    public List<ImageResult> fetchImages(ImageFetchRequest request) {
+    public Flux<ImageResult> fetchImagesReactive(ImageFetchRequest request) {
         if (!canHandle(request)) {
-            return Collections.emptyList();
+            return Flux.empty();
         }
 
         String salesUrl = request.salesUrl();
         log.debug("Fetching images from sales URL: {}", salesUrl);
 
-        try {
-            validateSalesUrl(salesUrl);
+        return Mono.defer(() -> {
+                validateSalesUrl(salesUrl);
 
-            long startTime = System.currentTimeMillis();
+                long startTime = System.currentTimeMillis();
+                Duration pageTimeout = adaptiveTimeoutService.timeoutFor("sales-url", RequestKind.PAGE, salesUrl, Duration.ofMillis(timeoutMs));
 
-            // Fetch HTML content
-            String html = webClient.get()
-                .uri(salesUrl)
-                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofMillis(timeoutMs))
-                .block();
+                Mono<List<String>> candidates = streamingEnabled
+                    ? salesPageService.fetchCandidates(salesUrl, maxResults, pageTimeout)
+                    : fetchAndParsePage(salesUrl, pageTimeout);
 
-            if (html == null || html.isBlank()) {
-                log.warn("Empty HTML content from sales URL: {}", salesUrl);
-                return Collections.emptyList();
-            }
+                return candidates
+                    .flatMapMany(imageUrls -> fetchAllImageMetadata(salesUrl, imageUrls, startTime))
+                    .collectList()
+                    .doOnNext(results -> log.info("Successfully fetched {} images from sales URL in {}ms",
+                        results.size(), System.currentTimeMillis() - startTime));
+            })
+            .flatMapIterable(results -> results)
+            .transform(execution -> imageFetchMetrics.timeStrategy(ImageSource.SALES_URL, request.salesChannel(), execution))
+            .transform(circuitBreakerService::reportFailures)
+            .onErrorResume(e -> handleError(salesUrl, e));
+    }
 
-            // Extract representative images from HTML
-            List<String> imageUrls = htmlParser.selectRepresentativeImages(html, maxResults);
+    @Override
+    public int getPriority() {
+        return 2;
+    }
 
-            if (imageUrls.isEmpty()) {
-                log.warn("No images found in sales URL: {}", salesUrl);
-                return Collections.emptyList();
-            }
+    @Override
+    public ImageSource getSource() {
+        return ImageSource.SALES_URL;
+    }
 
-            // Fetch metadata for each image
-            List<ImageResult> results = new ArrayList<>();
-            for (String imageUrl : imageUrls) {
-                try {
-                    ImageResult result = fetchImageMetadata(imageUrl, startTime);
-                    results.add(result);
-                } catch (Exception e) {
-                    log.warn("Failed to fetch metadata for image: {}", imageUrl, e);
-                    // Continue with other images
-                }
-            }
+    /**
+     * Fetch metadata for all images concurrently under one shared deadline,
+     * keeping the extraction order. The deadline is the longest adaptive timeout
+     * among the images' hosts.
+     */
+    private Flux<ImageResult> fetchAllImageMetadata(String salesUrl, List<String> imageUrls, long startTime) {
+        if (imageUrls.isEmpty()) {
+            log.warn("No images found in sales URL: {}", salesUrl);
+            return Flux.empty();
+        }
 
-            long totalTime = System.currentTimeMillis() - startTime;
-            log.info("Successfully fetched {} images from sales URL in {}ms", results.size(), totalTime);
-            return results;
+        Duration configured = Duration.ofMillis(metadataTimeoutMs);
+        RequestKind kind = probeEnabled ? RequestKind.PROBE : RequestKind.DOWNLOAD;
+        long metadataTimeout = imageUrls.stream()
+            .mapToLong(imageUrl -> adaptiveTimeoutService.timeoutFor("sales-url.metadata", kind, absoluteUrl(imageUrl), configured).toMillis())
+            .max()
+            .orElse(metadataTimeoutMs);
+        long metadataDeadline = System.currentTimeMillis() + metadataTimeout;
+        return Flux.fromIterable(imageUrls)
+            .flatMapSequential(imageUrl -> fetchImageMetadata(imageUrl, startTime, metadataDeadline),
+                metadataConcurrency);
+    }
 
-        } catch (InvalidUrlException | ImageNotAccessibleException e) {
+    private Flux<ImageResult> handleError(String salesUrl, Throwable e) {
+        if (e instanceof InvalidUrlException || e instanceof ImageNotAccessibleException) {
             // Re-throw custom exceptions for proper error handling
-            throw e;
-        } catch (WebClientResponseException e) {
-            log.error("HTTP error fetching sales URL: {} - Status: {}", salesUrl, e.getStatusCode());
-            if (e.getStatusCode().is4xxClientError()) {
-                throw new InvalidUrlException("Sales URL not accessible: " + salesUrl, e);
+            return Flux.error(e);
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            log.error("HTTP error fetching sales URL: {} - Status: {}", salesUrl, responseException.getStatusCode());
+            if (responseException.getStatusCode().is4xxClientError()) {
+                return Flux.error(new InvalidUrlException("Sales URL not accessible: " + salesUrl, e));
             }
-            throw new ImageNotAccessibleException("Failed to access sales URL: " + salesUrl, e);
-        } catch (Exception e) {
-            log.error("Error fetching images from sales URL: {}", salesUrl, e);
-            return Collections.emptyList();
+            return Flux.error(new ImageNotAccessibleException("Failed to access sales URL: " + salesUrl, e));
         }
+        log.error("Error fetching images from sales URL: {}", salesUrl, e);
+        return Flux.empty();
     }
 
-    @Override
-    public int getPriority() {
-        return 2;
+    /**
+     * Download the whole sales page and extract representative images from it
+     */
+    private Mono<List<String>> fetchAndParsePage(String salesUrl, Duration timeout) {
+        // Fetch HTML content
+        return circuitBreakerService.executeForHost(salesUrl, () -> hostLatencyTracker.time(RequestKind.PAGE, salesUrl, () -> webClient.get()
+                    .uri(salesUrl)
+                    .header(HttpHeaders.USER_AGENT, WebClientConfig.USER_AGENT)
+                    .retrieve()
+                    .bodyToMono(String.class))
+                .transform(hostLatencyTracker.timeout(RequestKind.PAGE, salesUrl, timeout)))
+            // The body is already decoded; its UTF-8 size stands in for the bytes received
+            .doOnNext(html -> imageFetchMetrics.recordDownload("page", ImageSource.SALES_URL,
+                html.getBytes(StandardCharsets.UTF_8).length))
+            .filter(html -> !html.isBlank())
+            // Extract representative images from HTML
+            .map(html -> {
+                long parseStart = System.nanoTime();
+                List<String> images = htmlParser.selectRepresentativeImages(html, maxResults);
+                imageFetchMetrics.recordHtmlParse(parseStart);
+                return images;
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                log.warn("Empty HTML content from sales URL: {}", salesUrl);
+                return Collections.emptyList();
+            }));
     }
 
     /**
@@ -126,51 +196,76 @@ public class SalesUrlImageFetchStrategy implements ImageFetchStrategy {
     }
 
     /**
-     * Fetch metadata for a single image URL
+     * Fetch metadata for a single image URL, falling back to a minimal result
+     * when the image cannot be read before the shared deadline
      */
-    private ImageResult fetchImageMetadata(String imageUrl, long overallStartTime) {
-        try {
-            long imageStartTime = System.currentTimeMillis();
-
-            // Handle relative URLs
-            String fullImageUrl = imageUrl;
-            if (imageUrl.startsWith("//")) {
-                fullImageUrl = "https:" + imageUrl;
-            }
+    private Mono<ImageResult> fetchImageMetadata(String imageUrl, long overallStartTime, long deadline) {
+        return Mono.defer(() -> {
+                long imageStartTime = System.currentTimeMillis();
+                Duration remaining = Duration.ofMillis(Math.max(1, deadline - imageStartTime));
 
-            byte[] imageBytes = webClient.get()
-                .uri(fullImageUrl)
-                .retrieve()
-                .bodyToMono(byte[].class)
-                .timeout(Duration.ofMillis(50)) // Quick timeout for individual images
-                .block();
-
-            long loadingTime = System.currentTimeMillis() - imageStartTime;
-
-            if (imageBytes != null && imageBytes.length > 0) {
-                String resolution = performanceMetricsService.getImageResolution(imageBytes);
-                long fileSize = imageBytes.length;
-
-                return new ImageResult(
-                    fullImageUrl,
-                    ImageSource.SALES_URL,
-                    loadingTime,
-                    resolution,
-                    fileSize
-                );
-            }
-        } catch (Exception e) {
-            log.debug("Could not fetch metadata for image: {}", imageUrl);
-        }
+                String fullImageUrl = absoluteUrl(imageUrl);
+
+                if (probeEnabled) {
+                    // Only the header bytes are needed for resolution and size
+                    return probeImageMetadata(fullImageUrl, imageStartTime, remaining);
+                }
+                return downloadImageMetadata(fullImageUrl, imageStartTime, remaining);
+            })
+            .onErrorResume(e -> {
+                log.debug("Could not fetch metadata for image: {}", imageUrl);
+                return Mono.empty();
+            })
+            // Return minimal result if metadata fetch fails
+            .switchIfEmpty(Mono.fromSupplier(() -> new ImageResult(
+                imageUrl,
+                ImageSource.SALES_URL,
+                System.currentTimeMillis() - overallStartTime,
+                "unknown",
+                0L
+            )));
+    }
+
+    /**
+     * Handle protocol-relative URLs
+     */
+    private static String absoluteUrl(String imageUrl) {
+        return imageUrl.startsWith("//") ? "https:" + imageUrl : imageUrl;
+    }
 
-        // Return minimal result if metadata fetch fails
-        long loadingTime = System.currentTimeMillis() - overallStartTime;
-        return new ImageResult(
-            imageUrl,
-            ImageSource.SALES_URL,
-            loadingTime,
-            "unknown",
-            0L
-        );
+    /**
+     * Download the whole image (or read it from the blob store) to read its metadata
+     */
+    private Mono<ImageResult> downloadImageMetadata(String fullImageUrl, long imageStartTime, Duration timeout) {
+        return imageBlobStore.getOrDownload(fullImageUrl, () -> hostReliabilityTracker.track(fullImageUrl,
+                circuitBreakerService.executeForHost(fullImageUrl,
+                    () -> hostLatencyTracker.time(RequestKind.DOWNLOAD, fullImageUrl, () -> webClient.get()
+                            .uri(fullImageUrl)
+                            .retrieve()
+                            .bodyToMono(byte[].class))
+                        .transform(hostLatencyTracker.timeout(RequestKind.DOWNLOAD, fullImageUrl, timeout))
+                        .doOnNext(imageBytes -> imageFetchMetrics.recordDownload("image", ImageSource.SALES_URL, imageBytes.length)))))
+            .filter(imageBytes -> imageBytes.length > 0)
+            .map(imageBytes -> new ImageResult(
+                fullImageUrl,
+                ImageSource.SALES_URL,
+                System.currentTimeMillis() - imageStartTime,
+                performanceMetricsService.getImageResolution(imageBytes),
+                imageBytes.length
+            ));
+    }
+
+    /**
+     * Probe metadata for a single image URL using a partial-content request
+     */
+    private Mono<ImageResult> probeImageMetadata(String fullImageUrl, long imageStartTime, Duration timeout) {
+        return imageMetadataProbeService.probe(fullImageUrl, ImageSource.SALES_URL, timeout)
+            .map(metadata -> new ImageResult(
+                fullImageUrl,
+                ImageSource.SALES_URL,
+                System.currentTimeMillis() - imageStartTime,
+                metadata.resolution(),
+                metadata.fileSizeBytes()
+            ));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,254 @@
+package com.example.imagefetch.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker over a count-based sliding window of the most recent calls.
+ * <p>
+ * CLOSED lets every call through and opens once the window holds at least minimum-calls
+ * and either the failure rate or the slow-call rate reaches its threshold. OPEN rejects
+ * calls until the open duration has passed; the next caller then moves it to HALF_OPEN,
+ * which lets a few trial calls through. If the trials stay under both thresholds the
+ * breaker closes with an empty window, otherwise it opens again.
+ * <p>
+ * Every permit carries the generation it was issued in, so results of calls that
+ * started before a state change never count toward the new state.
+ */
+public class CircuitBreaker {
+
+    /** Returned by {@link #tryAcquire()} while the breaker rejects calls */
+    public static final long REJECTED = -1;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final Config config;
+    private final LongSupplier clock;
+
+    /** Outcome flags of the last calls, written round-robin */
+    private final byte[] window;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long generation;
+    private long openUntilNanos;
+    private long stateSinceNanos;
+    private String reason = "";
+
+    private int trialPermits;
+    private int trialCalls;
+    private int trialFailures;
+    private int trialSlowCalls;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreaker(Config config) {
+        this(config, System::nanoTime);
+    }
+
+    CircuitBreaker(Config config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.window = new byte[config.windowSize()];
+        this.stateSinceNanos = clock.getAsLong();
+    }
+
+    /**
+     * Ask for permission to make a call
+     *
+     * @return Permit to pass to {@link #record} or {@link #release}, or {@link #REJECTED}
+     */
+    public long tryAcquire() {
+        long permit = generation;
+        if (state == State.CLOSED) {
+            return permit;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (state == State.OPEN && now - openUntilNanos >= 0) {
+                transition(State.HALF_OPEN, now);
+            }
+            if (state == State.CLOSED) {
+                return generation;
+            }
+            if (state == State.HALF_OPEN && trialPermits < config.halfOpenCalls()) {
+                trialPermits++;
+                return generation;
+            }
+            rejected.increment();
+            return REJECTED;
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted call
+     *
+     * @param permit        Permit returned by {@link #tryAcquire()}
+     * @param failed        Whether the call failed
+     * @param durationNanos How long the call took
+     */
+    public synchronized void record(long permit, boolean failed, long durationNanos) {
+        if (permit != generation) {
+            return;
+        }
+        boolean slow = durationNanos >= config.slowCallDuration().toNanos();
+        long now = clock.getAsLong();
+
+        if (state == State.CLOSED) {
+            add(failed, slow);
+            if (calls >= config.minimumCalls()) {
+                String tripped = tripReason(failures, slowCalls, calls);
+                if (tripped != null) {
+                    open(tripped, now);
+                }
+            }
+        } else if (state == State.HALF_OPEN) {
+            trialCalls++;
+            trialFailures += failed ? 1 : 0;
+            trialSlowCalls += slow ? 1 : 0;
+            if (trialCalls >= config.halfOpenCalls()) {
+                String tripped = tripReason(trialFailures, trialSlowCalls, trialCalls);
+                if (tripped != null) {
+                    open("trial calls: " + tripped, now);
+                } else {
+                    transition(State.CLOSED, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give back a permit whose call was cancelled before it finished.
+     * A call cancelled after the slow-call duration still counts as slow.
+     */
+    public synchronized void release(long permit, long durationNanos) {
+        if (permit != generation) {
+            return;
+        }
+        if (durationNanos >= config.slowCallDuration().toNanos()) {
+            record(permit, false, durationNanos);
+        } else if (state == State.HALF_OPEN) {
+            trialPermits--;
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long now = clock.getAsLong();
+        return new Snapshot(
+            state,
+            calls == 0 ? 0 : failures / (double) calls,
+            calls == 0 ? 0 : slowCalls / (double) calls,
+            calls,
+            rejected.sum(),
+            Duration.ofNanos(now - stateSinceNanos),
+            reason
+        );
+    }
+
+    private void add(boolean failed, boolean slow) {
+        if (calls == window.length) {
+            byte evicted = window[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        window[next] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        next = (next + 1) % window.length;
+    }
+
+    private String tripReason(int failed, int slow, int total) {
+        double failureRate = failed / (double) total;
+        if (failureRate >= config.failureRateThreshold()) {
+            return String.format("failure rate %.0f%% over %d calls", failureRate * 100, total);
+        }
+        double slowCallRate = slow / (double) total;
+        if (slowCallRate >= config.slowCallRateThreshold()) {
+            return String.format("slow-call rate %.0f%% over %d calls (>= %dms)",
+                slowCallRate * 100, total, config.slowCallDuration().toMillis());
+        }
+        return null;
+    }
+
+    private void open(String tripped, long now) {
+        reason = tripped;
+        openUntilNanos = now + config.openDuration().toNanos();
+        transition(State.OPEN, now);
+    }
+
+    private void transition(State target, long now) {
+        if (target == State.CLOSED) {
+            reason = "";
+        }
+        calls = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+        trialPermits = 0;
+        trialCalls = 0;
+        trialFailures = 0;
+        trialSlowCalls = 0;
+        stateSinceNanos = now;
+        generation++;
+        state = target;
+    }
+
+    /**
+     * @param windowSize            Number of most recent calls the rates are computed over
+     * @param minimumCalls          Calls needed in the window before the breaker may open
+     * @param failureRateThreshold  Failure rate in (0, 1] that opens the breaker
+     * @param slowCallRateThreshold Slow-call rate in (0, 1] that opens the breaker
+     * @param slowCallDuration      Calls taking at least this long are slow
+     * @param openDuration          How long the breaker rejects calls before trying again
+     * @param halfOpenCalls         Trial calls let through while half-open
+     */
+    public record Config(
+        int windowSize,
+        int minimumCalls,
+        double failureRateThreshold,
+        double slowCallRateThreshold,
+        Duration slowCallDuration,
+        Duration openDuration,
+        int halfOpenCalls
+    ) {
+        public Config {
+            if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+                throw new IllegalArgumentException(
+                    "window size and half-open calls must be positive, minimum calls between 1 and the window size");
+            }
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1
+                || slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+                throw new IllegalArgumentException("rate thresholds must be in (0, 1]");
+            }
+        }
+    }
+
+    /**
+     * Current state and window rates, for diagnostics
+     */
+    public record Snapshot(
+        State state,
+        double failureRate,
+        double slowCallRate,
+        int calls,
+        long rejected,
+        Duration inState,
+        String reason
+    ) {
+    }
+}
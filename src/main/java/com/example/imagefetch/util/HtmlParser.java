@@ -4,13 +4,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Utility class for parsing HTML and extracting image URLs
@@ -27,25 +30,34 @@ public class HtmlParser {
      */
     public Optional<String> extractOgImage(String html) {
         try {
-            Document doc = Jsoup.parse(html);
-            Element ogImage = doc.selectFirst("meta[property=og:image]");
-
-            if (ogImage != null) {
-                String imageUrl = ogImage.attr("content");
-                if (!imageUrl.isBlank()) {
-                    log.debug("Found OG image: {}", imageUrl);
-                    return Optional.of(imageUrl);
-                }
-            }
-
-            log.debug("No OG image found");
-            return Optional.empty();
+            return extractOgImage(Jsoup.parse(html));
         } catch (Exception e) {
             log.error("Error parsing OG image from HTML", e);
             return Optional.empty();
         }
     }
 
+    /**
+     * Extract Open Graph image URL from an already parsed document
+     *
+     * @param doc Parsed HTML document
+     * @return Optional containing OG image URL if found
+     */
+    public Optional<String> extractOgImage(Document doc) {
+        Element ogImage = doc.selectFirst("meta[property=og:image]");
+
+        if (ogImage != null) {
+            String imageUrl = ogImage.attr("content");
+            if (!imageUrl.isBlank()) {
+                log.debug("Found OG image: {}", imageUrl);
+                return Optional.of(imageUrl);
+            }
+        }
+
+        log.debug("No OG image found");
+        return Optional.empty();
+    }
+
     /**
      * Extract Twitter Card image URL from HTML
      *
@@ -54,25 +66,34 @@ public class HtmlParser {
      */
     public Optional<String> extractTwitterImage(String html) {
         try {
-            Document doc = Jsoup.parse(html);
-            Element twitterImage = doc.selectFirst("meta[name=twitter:image], meta[property=twitter:image]");
-
-            if (twitterImage != null) {
-                String imageUrl = twitterImage.attr("content");
-                if (!imageUrl.isBlank()) {
-                    log.debug("Found Twitter image: {}", imageUrl);
-                    return Optional.of(imageUrl);
-                }
-            }
-
-            log.debug("No Twitter image found");
-            return Optional.empty();
+            return extractTwitterImage(Jsoup.parse(html));
         } catch (Exception e) {
             log.error("Error parsing Twitter image from HTML", e);
             return Optional.empty();
         }
     }
 
+    /**
+     * Extract Twitter Card image URL from an already parsed document
+     *
+     * @param doc Parsed HTML document
+     * @return Optional containing Twitter image URL if found
+     */
+    public Optional<String> extractTwitterImage(Document doc) {
+        Element twitterImage = doc.selectFirst("meta[name=twitter:image], meta[property=twitter:image]");
+
+        if (twitterImage != null) {
+            String imageUrl = twitterImage.attr("content");
+            if (!imageUrl.isBlank()) {
+                log.debug("Found Twitter image: {}", imageUrl);
+                return Optional.of(imageUrl);
+            }
+        }
+
+        log.debug("No Twitter image found");
+        return Optional.empty();
+    }
+
     /**
      * Extract item images from HTML using common img selectors
      *
@@ -82,36 +103,11 @@ public class HtmlParser {
     public List<String> extractItemImages(String html) {
         try {
             Document doc = Jsoup.parse(html);
-            List<String> imageUrls = new ArrayList<>();
-
-            // Try to find images in common product image containers
-            Elements images = doc.select(
-                "img.product-image, " +
-                "img.item-image, " +
-                "img[itemprop=image], " +
-                ".product-detail img, " +
-                ".item-detail img, " +
-                ".product-images img, " +
-                "img"
-            );
-
-            for (Element img : images) {
-                String src = img.attr("src");
-                if (src.isBlank()) {
-                    src = img.attr("data-src");
-                }
-                if (src.isBlank()) {
-                    src = img.attr("data-original");
-                }
-
-                if (!src.isBlank() && isValidImageUrl(src)) {
-                    imageUrls.add(src);
-                    log.debug("Found item image: {}", src);
-                }
-            }
+            Set<String> imageUrls = new LinkedHashSet<>();
+            collectItemImages(doc, imageUrls, Integer.MAX_VALUE);
 
             log.debug("Extracted {} item images from HTML", imageUrls.size());
-            return imageUrls.stream().distinct().collect(Collectors.toList());
+            return new ArrayList<>(imageUrls);
         } catch (Exception e) {
             log.error("Error extracting item images from HTML", e);
             return List.of();
@@ -127,35 +123,82 @@ public class HtmlParser {
      * @return List of representative image URLs
      */
     public List<String> selectRepresentativeImages(String html, int maxImages) {
-        List<String> representativeImages = new ArrayList<>();
+        try {
+            return selectRepresentativeImages(Jsoup.parse(html), maxImages);
+        } catch (Exception e) {
+            log.error("Error selecting representative images from HTML", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Select representative images from an already parsed document in a single pass.
+     * OG and Twitter tags are looked up first, then img elements are walked in
+     * document order and the walk stops as soon as maxImages candidates are accepted.
+     *
+     * @param doc Parsed HTML document
+     * @param maxImages Maximum number of images to return
+     * @return List of representative image URLs
+     */
+    public List<String> selectRepresentativeImages(Document doc, int maxImages) {
+        Set<String> representativeImages = new LinkedHashSet<>();
 
         // Strategy 1: Try OG image
-        extractOgImage(html).ifPresent(representativeImages::add);
+        extractOgImage(doc).ifPresent(representativeImages::add);
 
         // Strategy 2: Try Twitter image (if different from OG)
         if (representativeImages.size() < maxImages) {
-            extractTwitterImage(html).ifPresent(url -> {
-                if (!representativeImages.contains(url)) {
-                    representativeImages.add(url);
-                }
-            });
+            extractTwitterImage(doc).ifPresent(representativeImages::add);
         }
 
         // Strategy 3: Add item images
         if (representativeImages.size() < maxImages) {
-            List<String> itemImages = extractItemImages(html);
-            for (String imgUrl : itemImages) {
-                if (representativeImages.size() >= maxImages) {
-                    break;
+            collectItemImages(doc, representativeImages, maxImages);
+        }
+
+        log.info("Selected {} representative images from HTML", representativeImages.size());
+        return new ArrayList<>(representativeImages);
+    }
+
+    /**
+     * Walk img elements in document order, adding valid and distinct image URLs
+     * until the candidate set reaches the limit
+     */
+    private void collectItemImages(Document doc, Set<String> candidates, int limit) {
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (candidates.size() >= limit) {
+                    return FilterResult.STOP;
                 }
-                if (!representativeImages.contains(imgUrl)) {
-                    representativeImages.add(imgUrl);
+                if (node instanceof Element img && "img".equals(img.normalName())) {
+                    String src = imageSource(img);
+                    if (!src.isBlank() && isValidImageUrl(src) && candidates.add(src)) {
+                        log.debug("Found item image: {}", src);
+                    }
                 }
+                return FilterResult.CONTINUE;
             }
-        }
 
-        log.info("Selected {} representative images from HTML", representativeImages.size());
-        return representativeImages;
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                return FilterResult.CONTINUE;
+            }
+        }, doc);
+    }
+
+    /**
+     * Read the image URL of an img element, including common lazy-loading attributes
+     */
+    private String imageSource(Element img) {
+        String src = img.attr("src");
+        if (src.isBlank()) {
+            src = img.attr("data-src");
+        }
+        if (src.isBlank()) {
+            src = img.attr("data-original");
+        }
+        return src;
     }
 
     /**
@@ -0,0 +1,60 @@
+package com.example.imagefetch.util;
+
+import com.example.imagefetch.exception.ImageNotAccessibleException;
+import com.example.imagefetch.exception.ImageTooLargeException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodes images at reduced resolution, so large originals are never held in memory at full size.
+ */
+public final class ImageDecoder {
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * Decode with {@link ImageReadParam} source subsampling so the longest side is at most
+     * about twice the target size. The header is read first and images declaring more than
+     * maxPixels are rejected before any pixel buffer is allocated.
+     *
+     * @param data       Encoded image
+     * @param targetSize Longest side the caller will scale the result to
+     * @param maxPixels  Largest width x height accepted
+     * @return Decoded image, never smaller than the target size unless the source is
+     * @throws ImageTooLargeException      if the image declares more than maxPixels
+     * @throws ImageNotAccessibleException if no reader supports the format
+     */
+    public static BufferedImage decodeSubsampled(byte[] data, int targetSize, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new ImageNotAccessibleException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    throw new ImageTooLargeException(
+                        "Image of " + width + "x" + height + " exceeds " + maxPixels + " pixels");
+                }
+
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * targetSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
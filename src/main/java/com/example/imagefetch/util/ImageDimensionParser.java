@@ -0,0 +1,213 @@
+package com.example.imagefetch.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Reads image dimensions from the header bytes of JPEG, PNG, GIF and WebP images
+ * without decoding any pixel data. Works on a prefix of the file, so callers can
+ * pass only the first few KB of a download.
+ */
+@Component
+public class ImageDimensionParser {
+
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+
+    /**
+     * Parse dimensions from the whole array
+     *
+     * @param data Image bytes (may be a prefix of the file)
+     * @return Optional containing the dimensions if the header could be read
+     */
+    public Optional<ImageDimensions> parse(byte[] data) {
+        return data == null ? Optional.empty() : parse(data, data.length);
+    }
+
+    /**
+     * Parse dimensions from the first {@code length} bytes of the array
+     *
+     * @param data Image bytes (may be a prefix of the file)
+     * @param length Number of valid bytes in the array
+     * @return Optional containing the dimensions, empty if the format is unknown
+     *         or the header is not fully contained in the given bytes
+     */
+    public Optional<ImageDimensions> parse(byte[] data, int length) {
+        if (data == null) {
+            return Optional.empty();
+        }
+        int limit = Math.min(length, data.length);
+
+        if (startsWith(data, limit, PNG_SIGNATURE)) {
+            return parsePng(data, limit);
+        }
+        if (limit >= 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+            return parseJpeg(data, limit);
+        }
+        if (startsWithAscii(data, limit, 0, "GIF87a") || startsWithAscii(data, limit, 0, "GIF89a")) {
+            return parseGif(data, limit);
+        }
+        if (startsWithAscii(data, limit, 0, "RIFF") && startsWithAscii(data, limit, 8, "WEBP")) {
+            return parseWebp(data, limit);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * PNG: width and height are the first two fields of the IHDR chunk
+     */
+    private Optional<ImageDimensions> parsePng(byte[] data, int limit) {
+        if (limit < 24 || !startsWithAscii(data, limit, 12, "IHDR")) {
+            return Optional.empty();
+        }
+        return dimensions("png", readInt32BE(data, 16), readInt32BE(data, 20));
+    }
+
+    /**
+     * GIF: logical screen width and height follow the 6-byte signature
+     */
+    private Optional<ImageDimensions> parseGif(byte[] data, int limit) {
+        if (limit < 10) {
+            return Optional.empty();
+        }
+        return dimensions("gif", readUInt16LE(data, 6), readUInt16LE(data, 8));
+    }
+
+    /**
+     * JPEG: walk the marker segments until the first start-of-frame marker
+     */
+    private Optional<ImageDimensions> parseJpeg(byte[] data, int limit) {
+        int pos = 2;
+        while (pos < limit) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                return Optional.empty();
+            }
+            // Skip fill bytes
+            while (pos < limit && (data[pos] & 0xFF) == 0xFF) {
+                pos++;
+            }
+            if (pos >= limit) {
+                return Optional.empty();
+            }
+            int marker = data[pos++] & 0xFF;
+
+            // Standalone markers carry no length field
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan before any frame header
+                return Optional.empty();
+            }
+            if (pos + 2 > limit) {
+                return Optional.empty();
+            }
+            int segmentLength = readUInt16BE(data, pos);
+            if (segmentLength < 2) {
+                return Optional.empty();
+            }
+
+            if (isStartOfFrame(marker)) {
+                // length(2) precision(1) height(2) width(2)
+                if (pos + 7 > limit) {
+                    return Optional.empty();
+                }
+                return dimensions("jpeg", readUInt16BE(data, pos + 5), readUInt16BE(data, pos + 3));
+            }
+            pos += segmentLength;
+        }
+        return Optional.empty();
+    }
+
+    private boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF
+            && marker != 0xC4   // DHT
+            && marker != 0xC8   // JPG extension
+            && marker != 0xCC;  // DAC
+    }
+
+    /**
+     * WebP: the first chunk after the RIFF header is VP8 (lossy), VP8L (lossless)
+     * or VP8X (extended), each with its own dimension encoding
+     */
+    private Optional<ImageDimensions> parseWebp(byte[] data, int limit) {
+        if (startsWithAscii(data, limit, 12, "VP8 ")) {
+            // frame tag(3) start code 9D 01 2A(3) width(2) height(2), 14 bits each
+            if (limit < 30 || (data[23] & 0xFF) != 0x9D || (data[24] & 0xFF) != 0x01 || (data[25] & 0xFF) != 0x2A) {
+                return Optional.empty();
+            }
+            return dimensions("webp", readUInt16LE(data, 26) & 0x3FFF, readUInt16LE(data, 28) & 0x3FFF);
+        }
+        if (startsWithAscii(data, limit, 12, "VP8L")) {
+            // signature 0x2F followed by 14-bit width-1 and 14-bit height-1
+            if (limit < 25 || (data[20] & 0xFF) != 0x2F) {
+                return Optional.empty();
+            }
+            int b0 = data[21] & 0xFF;
+            int b1 = data[22] & 0xFF;
+            int b2 = data[23] & 0xFF;
+            int b3 = data[24] & 0xFF;
+            int width = 1 + (((b1 & 0x3F) << 8) | b0);
+            int height = 1 + (((b3 & 0x0F) << 10) | (b2 << 2) | ((b1 & 0xC0) >> 6));
+            return dimensions("webp", width, height);
+        }
+        if (startsWithAscii(data, limit, 12, "VP8X")) {
+            // flags(1) reserved(3) canvas width-1(3) canvas height-1(3)
+            if (limit < 30) {
+                return Optional.empty();
+            }
+            return dimensions("webp", 1 + readUInt24LE(data, 24), 1 + readUInt24LE(data, 27));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ImageDimensions> dimensions(String format, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ImageDimensions(format, width, height));
+    }
+
+    private static boolean startsWith(byte[] data, int limit, byte[] prefix) {
+        if (limit < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithAscii(byte[] data, int limit, int offset, String text) {
+        if (limit < offset + text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (data[offset + i] != (byte) text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readUInt16BE(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readUInt16LE(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int readUInt24LE(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | ((data[offset + 2] & 0xFF) << 16);
+    }
+
+    private static int readInt32BE(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+            | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+}
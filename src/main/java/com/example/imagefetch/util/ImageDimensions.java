@@ -0,0 +1,18 @@
+package com.example.imagefetch.util;
+
+/**
+ * Image format and pixel dimensions read from an image header
+ */
+public record ImageDimensions(
+    String format,
+    int width,
+    int height
+) {
+
+    /**
+     * Resolution in the "WIDTHxHEIGHT" form used by ImageResult
+     */
+    public String resolution() {
+        return width + "x" + height;
+    }
+}
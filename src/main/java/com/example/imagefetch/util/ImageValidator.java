@@ -3,8 +3,12 @@ package com.example.imagefetch.util;
 import com.example.imagefetch.exception.InvalidUrlException;
 import org.springframework.stereotype.Component;
 
+import java.net.InetAddress;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 
@@ -40,4 +44,63 @@ public class ImageValidator {
             throw new InvalidUrlException("Unsupported image format. Allowed formats: " + ALLOWED_FORMATS);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Validate an image URL the server fetches on a client's behalf. On top of
+     * {@link #validateImageUrl(String)}, only http and https are allowed and every address
+     * the host resolves to must be public, so loopback, private, link-local (cloud metadata)
+     * and other internal addresses cannot be reached. Resolves the host, so it may block.
+     */
+    public void validatePublicImageUrl(String url) {
+        validateImageUrl(url);
+
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            throw new InvalidUrlException("Invalid URL format: " + url, e);
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new InvalidUrlException("Only http and https image URLs are allowed");
+        }
+        String host = uri.getHost();
+        if (host == null || host.isBlank()) {
+            throw new InvalidUrlException("Image URL has no host: " + url);
+        }
+
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new InvalidUrlException("Unknown image host: " + host, e);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublicAddress(address)) {
+                throw new InvalidUrlException("Image host resolves to a non-public address: " + host);
+            }
+        }
+    }
+
+    /**
+     * Whether the address is routable on the public internet
+     */
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+            || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        int first = bytes[0] & 0xFF;
+        int second = bytes[1] & 0xFF;
+        if (bytes.length == 4) {
+            // 0.0.0.0/8, carrier-grade NAT 100.64.0.0/10, 192.0.0.0/24 and 240.0.0.0/4 (reserved, broadcast)
+            return first != 0
+                && !(first == 100 && second >= 64 && second < 128)
+                && !(first == 192 && second == 0 && bytes[2] == 0)
+                && first < 240;
+        }
+        // Unique local fc00::/7
+        return (first & 0xFE) != 0xFC;
+    }
+}
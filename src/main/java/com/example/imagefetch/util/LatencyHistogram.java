@@ -0,0 +1,94 @@
+package com.example.imagefetch.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency sketch with logarithmic buckets (about 20% relative error, 0.1ms to about 3 minutes).
+ * Once the window of samples is full all counts are halved, so quantiles follow recent
+ * behaviour while older samples fade out.
+ */
+public class LatencyHistogram {
+
+    private static final long BASE_NANOS = 100_000;
+    private static final double GROWTH = 1.2;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 80;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicBoolean decaying = new AtomicBoolean();
+    private final long window;
+
+    /**
+     * @param window Samples after which older samples are halved
+     */
+    public LatencyHistogram(long window) {
+        this.window = window;
+    }
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        if (total.incrementAndGet() >= window && decaying.compareAndSet(false, true)) {
+            try {
+                long remaining = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    long halved = counts.get(i) / 2;
+                    counts.set(i, halved);
+                    remaining += halved;
+                }
+                // Samples recorded while halving are approximately accounted for
+                total.set(remaining);
+            } finally {
+                decaying.set(false);
+            }
+        }
+    }
+
+    /**
+     * Number of samples currently weighed by the sketch
+     */
+    public long count() {
+        return total.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile
+     *
+     * @param quantile Quantile in (0, 1], e.g. 0.95
+     * @return Latency in nanoseconds, or -1 if no samples were recorded
+     */
+    public long quantile(double quantile) {
+        long samples = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            samples += snapshot[i];
+        }
+        if (samples == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(quantile * samples);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private static int bucketOf(long nanos) {
+        if (nanos <= BASE_NANOS) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log((double) nanos / BASE_NANOS) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) (BASE_NANOS * Math.pow(GROWTH, bucket));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.imagefetch.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+/**
+ * Difference hash (dHash) of an image: the image is reduced to 9x8 grayscale pixels and
+ * each bit records whether a pixel is brighter than its right neighbour. Re-encoded,
+ * resized or lightly recompressed copies of the same picture differ in only a few bits.
+ */
+public final class PerceptualHash {
+
+    /** Longest side to decode the source at before reducing it to 9x8 */
+    public static final int DECODE_SIZE = 32;
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * @param image Decoded image, ideally already reduced to about {@link #DECODE_SIZE}
+     * @return 64-bit difference hash
+     */
+    public static long dHash(BufferedImage image) {
+        BufferedImage gray = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = gray.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, WIDTH, HEIGHT, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Raster raster = gray.getRaster();
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (raster.getSample(x, y, 0) > raster.getSample(x + 1, y, 0)) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of differing bits between two hashes
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.imagefetch.util;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one upstream call.
+ * Callers arriving while a call is in flight subscribe to the same result.
+ * The upstream call is reference counted: it is only cancelled when every
+ * subscribed caller has cancelled. The key is released before the result is
+ * published, and the result is replayed to callers that joined just before, so a
+ * finished call is never run again on behalf of a caller that joined it.
+ *
+ * @param <K> Key type, e.g. a canonical URL or normalized query
+ * @param <V> Result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAccumulator maxFanOut = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Run the call for the key, or join the call already in flight for it.
+     * Per-caller operators such as timeouts should be applied to the returned Mono,
+     * not inside the call, so one caller giving up does not affect the others.
+     *
+     * @param key  Coalescing key
+     * @param call Upstream call, subscribed at most once per flight
+     * @return Mono emitting the shared result
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            while (true) {
+                boolean[] created = {false};
+                Flight flight = inFlight.computeIfAbsent(key, k -> {
+                    created[0] = true;
+                    return new Flight(k, call);
+                });
+                if (!flight.tryJoin()) {
+                    // Every caller of this flight cancelled; it is being released
+                    inFlight.remove(key, flight);
+                    continue;
+                }
+                if (created[0]) {
+                    executions.increment();
+                    flight.start();
+                } else {
+                    coalesced.increment();
+                }
+                return flight.result.asMono().doOnCancel(flight::leave);
+            }
+        });
+    }
+
+    /**
+     * Join the call in flight for the key without ever starting one
+     *
+     * @param key Coalescing key
+     * @return Mono emitting the shared result, or empty if no call is in flight for the key
+     */
+    public Mono<V> join(K key) {
+        return Mono.defer(() -> {
+            Flight flight = inFlight.get(key);
+            if (flight == null || !flight.tryJoin()) {
+                return Mono.empty();
+            }
+            coalesced.increment();
+            return flight.result.asMono().doOnCancel(flight::leave);
+        });
+    }
+
+    public long inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Upstream executions, coalesced callers and fan-out for diagnostics
+     */
+    public Map<String, Object> stats() {
+        long executionCount = executions.sum();
+        long coalescedCount = coalesced.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executions", executionCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("inFlight", inFlightCount());
+        stats.put("averageFanOut", executionCount == 0 ? 0.0 : (double) (executionCount + coalescedCount) / executionCount);
+        stats.put("maxFanOut", maxFanOut.get());
+        return stats;
+    }
+
+    public long executions() {
+        return executions.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public long maxFanOut() {
+        return maxFanOut.get();
+    }
+
+    private final class Flight {
+
+        private final K key;
+        private final Supplier<Mono<V>> call;
+
+        /** Replays the outcome to every caller, including ones subscribing after it was published */
+        private final Sinks.One<V> result = Sinks.one();
+
+        /** Callers that have not cancelled, or -1 once all of them did and no one may join */
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private final AtomicInteger joined = new AtomicInteger();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile Disposable upstream;
+
+        Flight(K key, Supplier<Mono<V>> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        boolean tryJoin() {
+            while (true) {
+                int current = subscribers.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (subscribers.compareAndSet(current, current + 1)) {
+                    joined.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        void start() {
+            upstream = Mono.defer(call).subscribe(
+                value -> {
+                    if (terminate()) {
+                        result.tryEmitValue(value);
+                    }
+                },
+                error -> {
+                    if (terminate()) {
+                        result.tryEmitError(error);
+                    }
+                },
+                () -> {
+                    if (terminate()) {
+                        result.tryEmitEmpty();
+                    }
+                }
+            );
+        }
+
+        /**
+         * A caller cancelled; the last one to leave cancels the upstream call
+         */
+        void leave() {
+            while (true) {
+                int current = subscribers.get();
+                if (current <= 0) {
+                    return;
+                }
+                int next = current == 1 ? -1 : current - 1;
+                if (subscribers.compareAndSet(current, next)) {
+                    if (next < 0 && terminate()) {
+                        Disposable running = upstream;
+                        if (running != null) {
+                            running.dispose();
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Release the key exactly once, before the outcome is published
+         */
+        private boolean terminate() {
+            if (!terminated.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.remove(key, this);
+            maxFanOut.accumulate(joined.get());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.imagefetch.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the named {@link SingleFlight} groups so their counters can be reported together.
+ * Each group is bound to Micrometer, tagged with its name:
+ * <ul>
+ *   <li>image.fetch.single-flight.executions: upstream calls started</li>
+ *   <li>image.fetch.single-flight.coalesced: callers that joined a call in flight</li>
+ *   <li>image.fetch.single-flight.in-flight and image.fetch.single-flight.max-fan-out</li>
+ * </ul>
+ */
+@Component
+public class SingleFlightRegistry {
+
+    private final Map<String, SingleFlight<?, ?>> groups = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Create (or return the existing) single-flight group with the given name
+     *
+     * @param name Group name, e.g. "image-probe"
+     * @return Single-flight group
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> SingleFlight<K, V> create(String name) {
+        return (SingleFlight<K, V>) groups.computeIfAbsent(name, n -> bind(n, new SingleFlight<>()));
+    }
+
+    public Map<String, SingleFlight<?, ?>> groups() {
+        return Map.copyOf(groups);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        groups.forEach((name, group) -> stats.put(name, group.stats()));
+        return stats;
+    }
+
+    private SingleFlight<?, ?> bind(String name, SingleFlight<?, ?> group) {
+        FunctionCounter.builder("image.fetch.single-flight.executions", group, SingleFlight::executions)
+            .description("Upstream calls started by a single-flight group")
+            .tag("group", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("image.fetch.single-flight.coalesced", group, SingleFlight::coalesced)
+            .description("Callers that joined an upstream call already in flight")
+            .tag("group", name)
+            .register(meterRegistry);
+        Gauge.builder("image.fetch.single-flight.in-flight", group, SingleFlight::inFlightCount)
+            .description("Upstream calls in flight")
+            .tag("group", name)
+            .register(meterRegistry);
+        Gauge.builder("image.fetch.single-flight.max-fan-out", group, SingleFlight::maxFanOut)
+            .description("Most callers sharing one upstream call")
+            .tag("group", name)
+            .register(meterRegistry);
+        return group;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.imagefetch.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes free text (item names, option names, search queries) so that
+ * equivalent spellings map to the same cache key.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u3000]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalize text for use as a cache key:
+     * NFKC folds full-width Latin/digits and half-width Hangul/Katakana into their
+     * standard forms, whitespace runs collapse to one space, case is folded and the
+     * result is recomposed to NFC.
+     *
+     * @param text Text to normalize, may be null
+     * @return Normalized text, empty string for null or blank input
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        folded = WHITESPACE.matcher(folded).replaceAll(" ").strip();
+        folded = folded.toLowerCase(Locale.ROOT);
+        return Normalizer.normalize(folded, Normalizer.Form.NFC);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.imagefetch.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm (GCRA).
+ * The whole bucket state is one theoretical arrival time, updated with CAS,
+ * so concurrent callers can neither exceed the rate nor the burst.
+ * Permits are reserved ahead of time: the caller is told how long to wait
+ * instead of being put to sleep.
+ */
+public class TokenBucket {
+
+    /** Returned by {@link #reserve(long)} when no permit is available within the wait limit */
+    public static final long REJECTED = -1;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxWaiters;
+    private final LongSupplier clock;
+
+    private final AtomicLong theoreticalArrivalNanos;
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * @param permitsPerSecond Sustained rate
+     * @param burst            Permits that may be taken back to back from a full bucket
+     * @param maxWaiters       Callers allowed to wait for a future permit at the same time
+     */
+    public TokenBucket(double permitsPerSecond, int burst, int maxWaiters) {
+        this(permitsPerSecond, burst, maxWaiters, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, int maxWaiters, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxWaiters < 0) {
+            throw new IllegalArgumentException("rate must be positive, burst at least 1 and maxWaiters not negative");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.maxWaiters = maxWaiters;
+        this.clock = clock;
+        this.theoreticalArrivalNanos = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Reserve the next permit. A positive return value also takes a waiter slot,
+     * which the caller must release with {@link #waiterDone()} after waiting.
+     *
+     * @param maxWaitNanos Longest acceptable wait for the permit
+     * @return Nanoseconds to wait before using the permit (0 = now), or {@link #REJECTED}
+     *         if the wait would exceed maxWaitNanos or too many callers are already waiting
+     */
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = clock.getAsLong();
+            long tat = theoreticalArrivalNanos.get();
+            long waitNanos = Math.max(0, tat - burstToleranceNanos - now);
+
+            if (waitNanos > maxWaitNanos) {
+                return REJECTED;
+            }
+            boolean waiting = waitNanos > 0;
+            if (waiting && !tryAddWaiter()) {
+                return REJECTED;
+            }
+
+            long nextTat = Math.max(tat, now) + emissionIntervalNanos;
+            if (theoreticalArrivalNanos.compareAndSet(tat, nextTat)) {
+                return waitNanos;
+            }
+            if (waiting) {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+
+    public void waiterDone() {
+        waiters.decrementAndGet();
+    }
+
+    /**
+     * Give back a permit that was reserved but will not be used, e.g. because the waiter cancelled.
+     * Later reservations keep their wait; the freed slot goes to the next caller.
+     */
+    public void refund() {
+        while (true) {
+            long now = clock.getAsLong();
+            long tat = theoreticalArrivalNanos.get();
+            if (tat <= now) {
+                return;
+            }
+            long refundedTat = Math.max(now, tat - emissionIntervalNanos);
+            if (theoreticalArrivalNanos.compareAndSet(tat, refundedTat)) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryAddWaiter() {
+        while (true) {
+            int current = waiters.get();
+            if (current >= maxWaiters) {
+                return false;
+            }
+            if (waiters.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public int waiters() {
+        return waiters.get();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.imagefetch.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * Canonical form of URLs used as keys, so trivially different spellings of
+ * the same resource share one entry.
+ */
+public final class UrlCanonicalizer {
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * Lower-case scheme and host, drop default ports and the fragment, normalize the path.
+     * URLs that cannot be parsed are only trimmed.
+     *
+     * @param url URL to canonicalize, may be null
+     * @return Canonical URL, empty string for null input
+     */
+    public static String canonicalize(String url) {
+        if (url == null) {
+            return "";
+        }
+        String trimmed = url.strip();
+        try {
+            URI uri = new URI(trimmed).normalize();
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                + (port == -1 ? "" : ":" + port)
+                + path
+                + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+}
@@ -4,102 +4,121 @@
  */
 
 const API_BASE_URL = 'http://localhost:8080';
-const API_ENDPOINT = `${API_BASE_URL}/api/v1/images/fetch`;
+const API_STREAM_ENDPOINT = `${API_BASE_URL}/api/v1/images/fetch/stream`;
 
 /**
- * Fetch images from the backend API
+ * Fetch images as a Server-Sent Events stream.
+ * EventSource only supports GET, so the POST response body is read with a stream reader.
  * @param {Object} request - Image fetch request object
  * @param {string} request.itemName - Item name (required)
  * @param {string} [request.optionName] - Option name (optional)
  * @param {string} [request.imageUrl] - Direct image URL (optional)
  * @param {string} [request.salesUrl] - Sales page URL (optional)
  * @param {string} [request.salesChannel] - Sales channel (optional)
- * @returns {Promise<Object>} Image fetch response
+ * @param {Object} handlers - Event callbacks
+ * @param {function(Object)} handlers.onImage - Called with each image result as soon as it arrives
+ * @param {function(Object)} handlers.onSummary - Called once with the final response
+ * @returns {Promise<Object>} Final image fetch response (the summary event)
  */
-async function fetchImages(request) {
+async function fetchImagesStream(request, { onImage, onSummary }) {
     const startTime = Date.now();
 
-    try {
-        // Log request for debugging
-        console.log('[API] Request:', {
-            timestamp: new Date().toISOString(),
-            endpoint: API_ENDPOINT,
-            payload: request
-        });
+    console.log('[API] Stream Request:', {
+        timestamp: new Date().toISOString(),
+        endpoint: API_STREAM_ENDPOINT,
+        payload: request
+    });
 
-        // Make API call
-        const response = await fetch(API_ENDPOINT, {
+    let response;
+    try {
+        response = await fetch(API_STREAM_ENDPOINT, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
+                'Accept': 'text/event-stream'
             },
             body: JSON.stringify(request)
         });
+    } catch (error) {
+        const networkError = new Error('Cannot connect to backend. Is the server running?');
+        networkError.status = 0;
+        networkError.code = 'NETWORK_ERROR';
+        throw networkError;
+    }
 
-        const duration = Date.now() - startTime;
-
-        // Handle error responses
-        if (!response.ok) {
-            const errorData = await response.json().catch(() => ({
-                error: 'UNKNOWN_ERROR',
-                message: `HTTP ${response.status}: ${response.statusText}`
-            }));
-
-            console.error('[API] Error Response:', {
-                status: response.status,
-                statusText: response.statusText,
-                error: errorData,
-                duration: `${duration}ms`
-            });
-
-            // Throw error with response data
-            const error = new Error(errorData.message || 'Failed to fetch images');
-            error.status = response.status;
-            error.code = errorData.error;
-            error.data = errorData;
-            throw error;
-        }
+    if (!response.ok) {
+        const errorData = await response.json().catch(() => ({
+            error: 'UNKNOWN_ERROR',
+            message: `HTTP ${response.status}: ${response.statusText}`
+        }));
+        const error = new Error(errorData.message || 'Failed to fetch images');
+        error.status = response.status;
+        error.code = errorData.error;
+        error.data = errorData;
+        throw error;
+    }
 
-        // Parse successful response
-        const data = await response.json();
-
-        // Log successful response
-        console.log('[API] Success Response:', {
-            timestamp: new Date().toISOString(),
-            status: response.status,
-            imageCount: data.images?.length || 0,
-            totalLoadingTime: data.totalLoadingTimeMs,
-            requestDuration: `${duration}ms`,
-            data: data
-        });
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    let summary = null;
 
-        return data;
+    while (true) {
+        const { value, done } = await reader.read();
+        if (done) {
+            break;
+        }
+        buffer += decoder.decode(value, { stream: true });
 
-    } catch (error) {
-        // Handle network errors
-        if (error.name === 'TypeError' && error.message.includes('fetch')) {
-            console.error('[API] Network Error:', {
-                message: 'Failed to connect to backend',
-                endpoint: API_ENDPOINT,
-                originalError: error.message
-            });
-
-            const networkError = new Error('Cannot connect to backend. Is the server running?');
-            networkError.status = 0;
-            networkError.code = 'NETWORK_ERROR';
-            throw networkError;
+        // Events are separated by a blank line
+        let boundary;
+        while ((boundary = buffer.search(/\r?\n\r?\n/)) !== -1) {
+            const rawEvent = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary).replace(/^\r?\n\r?\n/, '');
+
+            const event = parseServerSentEvent(rawEvent);
+            if (!event) {
+                continue;
+            }
+            if (event.type === 'image') {
+                console.log('[API] Stream image after', `${Date.now() - startTime}ms`, event.data);
+                onImage?.(event.data);
+            } else if (event.type === 'summary') {
+                summary = event.data;
+                console.log('[API] Stream summary:', {
+                    imageCount: summary.images?.length || 0,
+                    totalLoadingTime: summary.totalLoadingTimeMs,
+                    requestDuration: `${Date.now() - startTime}ms`
+                });
+                onSummary?.(summary);
+            }
         }
+    }
 
-        // Re-throw other errors
-        console.error('[API] Request Failed:', {
-            timestamp: new Date().toISOString(),
-            error: error.message,
-            status: error.status || 'unknown',
-            code: error.code || 'unknown'
-        });
+    return summary;
+}
 
-        throw error;
+/**
+ * Parse one Server-Sent Event block
+ * @param {string} rawEvent - Lines of a single event
+ * @returns {{type: string, data: Object}|null} Parsed event, null if it has no data
+ */
+function parseServerSentEvent(rawEvent) {
+    let type = 'message';
+    const dataLines = [];
+
+    rawEvent.split(/\r?\n/).forEach(line => {
+        if (line.startsWith('event:')) {
+            type = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+            dataLines.push(line.slice(5).replace(/^ /, ''));
+        }
+    });
+
+    if (dataLines.length === 0) {
+        return null;
     }
+    return { type, data: JSON.parse(dataLines.join('\n')) };
 }
 
 /**
@@ -80,17 +80,29 @@ async function handleFormSubmit(event) {
     showLoading();
 
     try {
-        // Call API
-        const response = await fetchImages(request);
+        // Stream images so the fastest strategy's images show up right away
+        let streamedCount = 0;
+        prepareProgressiveResults();
+
+        await fetchImagesStream(request, {
+            onImage: image => {
+                appendImageCard(image, streamedCount++);
+                if (streamedCount === 1) {
+                    scrollToResults();
+                }
+            },
+            onSummary: response => {
+                // The summary holds the final priority-ordered selection
+                renderResults(response);
+            }
+        });
 
         // Hide loading
         hideLoading();
 
-        // Render results
-        renderResults(response);
-
-        // Scroll to results
-        scrollToResults();
+        if (streamedCount === 0) {
+            scrollToResults();
+        }
 
     } catch (error) {
         // Hide loading
@@ -357,6 +369,25 @@ function renderResults(response) {
     console.log('[App] Rendered', response.images.length, 'images');
 }
 
+/**
+ * Show an empty results section that images are appended to as they stream in
+ */
+function prepareProgressiveResults() {
+    showResults();
+    imageGrid.innerHTML = '';
+    emptyState.setAttribute('hidden', '');
+    totalLoadingTimeEl.textContent = '…';
+}
+
+/**
+ * Append a single streamed image to the results grid
+ * @param {Object} image - Image result object
+ * @param {number} index - Image index
+ */
+function appendImageCard(image, index) {
+    imageGrid.appendChild(createImageCard(image, index));
+}
+
 /**
  * Create image card element
  * @param {Object} image - Image result object
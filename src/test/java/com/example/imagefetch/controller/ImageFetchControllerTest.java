@@ -1,10 +1,14 @@
 package com.example.imagefetch.controller;
 
+import com.example.imagefetch.dto.BatchItemResult;
+import com.example.imagefetch.dto.ImageFetchEvent;
 import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageFetchResponse;
 import com.example.imagefetch.dto.ImageResult;
 import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.service.BatchImageFetchService;
 import com.example.imagefetch.service.ImageCollectionService;
+import com.example.imagefetch.service.ThumbnailService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +16,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,6 +43,12 @@ class ImageFetchControllerTest {
     @MockBean
     private ImageCollectionService imageCollectionService;
 
+    @MockBean
+    private BatchImageFetchService batchImageFetchService;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
     @Test
     void testFetchImages_Success() throws Exception {
         ImageFetchRequest request = new ImageFetchRequest(
@@ -52,17 +69,84 @@ class ImageFetchControllerTest {
 
         ImageFetchResponse response = new ImageFetchResponse(234L, List.of(result));
 
-        when(imageCollectionService.fetchImages(any())).thenReturn(response);
+        when(imageCollectionService.fetchImagesReactive(any())).thenReturn(Mono.just(response));
 
-        mockMvc.perform(post("/api/v1/images/fetch")
+        MvcResult asyncResult = mockMvc.perform(post("/api/v1/images/fetch")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.totalLoadingTimeMs").value(234))
             .andExpect(jsonPath("$.images[0].url").value("https://example.com/image.jpg"))
             .andExpect(jsonPath("$.images[0].source").value("DIRECT"));
     }
 
+    @Test
+    void testStreamImages_EmitsImageAndSummaryEvents() throws Exception {
+        ImageFetchRequest request = new ImageFetchRequest("Samsung Galaxy S24", null, "https://example.com/image.jpg", null, null);
+        ImageResult result = new ImageResult("https://example.com/image.jpg", ImageSource.DIRECT, 50L, "800x600", 1024L);
+
+        when(imageCollectionService.streamImages(any())).thenReturn(Flux.just(
+            ImageFetchEvent.image(result),
+            ImageFetchEvent.summary(new ImageFetchResponse(50L, List.of(result)))
+        ));
+
+        MvcResult asyncResult = mockMvc.perform(post("/api/v1/images/fetch/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(content().string(containsString("event:image\ndata:{\"url\":\"https://example.com/image.jpg\"")))
+            .andExpect(content().string(containsString("event:summary\ndata:{\"totalLoadingTimeMs\":50")));
+    }
+
+    @Test
+    void testFetchImagesBatch_StreamsNdjson() throws Exception {
+        ImageFetchResponse response = new ImageFetchResponse(120L, List.of());
+        when(batchImageFetchService.fetchAll(any())).thenReturn(Flux.just(
+            BatchItemResult.success(1, "Item B", response),
+            BatchItemResult.failure(0, null, "itemName is required")
+        ));
+
+        MvcResult asyncResult = mockMvc.perform(post("/api/v1/images/fetch/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"itemName\":\"Item B\"}\n{\"optionName\":\"x\"}\n"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("{\"index\":1,\"itemName\":\"Item B\",\"response\":{\"totalLoadingTimeMs\":120,\"images\":[]}}\n")))
+            .andExpect(content().string(containsString("{\"index\":0,\"error\":\"itemName is required\"}\n")));
+    }
+
+    @Test
+    void testThumbnail_ReturnsJpeg() throws Exception {
+        byte[] thumbnail = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+        when(thumbnailService.render(eq("https://example.com/image.jpg"), eq(128))).thenReturn(Mono.just(thumbnail));
+
+        MvcResult asyncResult = mockMvc.perform(get("/api/v1/images/thumbnail")
+                .param("url", "https://example.com/image.jpg")
+                .param("size", "128"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+            .andExpect(header().string("Cache-Control", containsString("max-age=86400")))
+            .andExpect(header().string("Cache-Control", containsString("private")))
+            .andExpect(content().bytes(thumbnail));
+    }
+
     @Test
     void testFetchImages_MissingItemName() throws Exception {
         ImageFetchRequest request = new ImageFetchRequest(
@@ -9,15 +9,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ActiveProfiles("test")
 class ImageFetchIntegrationTest {
 
     @Autowired
@@ -36,9 +40,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        MvcResult result = mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        MvcResult result = performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray())
             .andExpect(jsonPath("$.totalLoadingTimeMs").exists())
@@ -61,9 +63,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray())
             .andExpect(jsonPath("$.totalLoadingTimeMs").exists());
@@ -79,9 +79,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray())
             .andExpect(jsonPath("$.totalLoadingTimeMs").exists());
@@ -97,9 +95,7 @@ class ImageFetchIntegrationTest {
             SalesChannel.NAVER
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray())
             .andExpect(jsonPath("$.totalLoadingTimeMs").exists());
@@ -115,9 +111,7 @@ class ImageFetchIntegrationTest {
             SalesChannel.NAVER
         );
 
-        MvcResult result = mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        MvcResult result = performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray())
             .andExpect(jsonPath("$.totalLoadingTimeMs").exists())
@@ -140,9 +134,7 @@ class ImageFetchIntegrationTest {
             SalesChannel.NAVER
         );
 
-        MvcResult result = mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        MvcResult result = performFetch(request)
             .andExpect(status().isOk())
             .andReturn();
 
@@ -162,9 +154,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray());
     }
@@ -179,9 +169,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        MvcResult result = mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        MvcResult result = performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.totalLoadingTimeMs").isNumber())
             .andReturn();
@@ -217,9 +205,7 @@ class ImageFetchIntegrationTest {
             SalesChannel.NAVER
         );
 
-        MvcResult result = mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        MvcResult result = performFetch(request)
             .andExpect(status().isOk())
             .andReturn();
 
@@ -241,9 +227,7 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.images").isArray());
     }
@@ -258,10 +242,21 @@ class ImageFetchIntegrationTest {
             null
         );
 
-        mockMvc.perform(post("/api/v1/images/fetch")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performFetch(request)
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
-}
\ No newline at end of file
+
+    /**
+     * POST the request and wait for the asynchronously produced response
+     */
+    private ResultActions performFetch(ImageFetchRequest request) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(post("/api/v1/images/fetch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        return mockMvc.perform(asyncDispatch(asyncResult));
+    }
+}
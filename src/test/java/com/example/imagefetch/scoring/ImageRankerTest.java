@@ -0,0 +1,79 @@
+package com.example.imagefetch.scoring;
+
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageRankerTest {
+
+    private final List<ImageResult> candidates = List.of(
+        image("small.jpg", "100x100"),
+        image("large.jpg", "1000x1000"),
+        image("medium.jpg", "500x500"),
+        image("unknown.jpg", "unknown")
+    );
+
+    @Test
+    void select_shouldKeepStrategyOrder_whenScoringDisabled() {
+        ImageRanker ranker = new ImageRanker(List.of(new ResolutionScorer()));
+
+        ImageRanker.Ranking ranking = ranker.select(candidates, 3, index -> true);
+
+        assertThat(ranking.images()).extracting(ImageResult::url)
+            .containsExactly("small.jpg", "large.jpg", "medium.jpg");
+        assertThat(ranking.scores()).isNull();
+    }
+
+    @Test
+    void select_shouldReturnTopNByScore() {
+        ImageRanker ranker = enabledRanker(false);
+
+        ImageRanker.Ranking ranking = ranker.select(candidates, 2, index -> true);
+
+        assertThat(ranking.images()).extracting(ImageResult::url)
+            .containsExactly("large.jpg", "medium.jpg");
+    }
+
+    @Test
+    void select_shouldFillRejectedSlot_withNextBestCandidate() {
+        ImageRanker ranker = enabledRanker(false);
+
+        ImageRanker.Ranking ranking = ranker.select(candidates, 2, index -> index != 1);
+
+        assertThat(ranking.images()).extracting(ImageResult::url)
+            .containsExactly("medium.jpg", "unknown.jpg");
+    }
+
+    @Test
+    void select_shouldIncludeScoreBreakdown_whenDebugEnabled() {
+        ImageRanker ranker = enabledRanker(true);
+
+        ImageRanker.Ranking ranking = ranker.select(candidates, 1, index -> true);
+
+        assertThat(ranking.scores()).singleElement().satisfies(score -> {
+            assertThat(score.url()).isEqualTo("large.jpg");
+            assertThat(score.total()).isEqualTo(2.0);
+            assertThat(score.contributions()).containsEntry("resolution", 2.0);
+        });
+    }
+
+    private static ImageRanker enabledRanker(boolean debug) {
+        ResolutionScorer scorer = new ResolutionScorer();
+        ReflectionTestUtils.setField(scorer, "weight", 2.0);
+        ReflectionTestUtils.setField(scorer, "targetEdge", 1000);
+
+        ImageRanker ranker = new ImageRanker(List.of(scorer));
+        ReflectionTestUtils.setField(ranker, "enabled", true);
+        ReflectionTestUtils.setField(ranker, "debug", debug);
+        return ranker;
+    }
+
+    private static ImageResult image(String url, String resolution) {
+        return new ImageResult(url, ImageSource.SALES_URL, 0L, resolution, 0L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveTimeoutServiceTest {
+
+    private final HostLatencyTracker tracker = new HostLatencyTracker(100);
+    private AdaptiveTimeoutService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tracker, "minSamples", 20L);
+        ReflectionTestUtils.setField(tracker, "window", 1024L);
+
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("image-fetch.adaptive-timeout.default.min", "20")
+            .withProperty("image-fetch.adaptive-timeout.default.max", "3000")
+            .withProperty("image-fetch.adaptive-timeout.direct-url.max", "400");
+        service = new AdaptiveTimeoutService(tracker, environment);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "quantile", 0.99);
+        ReflectionTestUtils.setField(service, "multiplier", 1.5);
+        ReflectionTestUtils.setField(service, "marginMs", 20L);
+    }
+
+    @Test
+    void timeoutFor_shouldUseConfiguredTimeout_untilHostHasSamples() {
+        Duration timeout = service.timeoutFor("channel-search", RequestKind.PAGE, "https://new.example.com/a", Duration.ofMillis(3000));
+
+        assertThat(timeout).isEqualTo(Duration.ofMillis(3000));
+    }
+
+    @Test
+    void timeoutFor_shouldShrinkForFastHost() {
+        record("https://fast.example.com/a.jpg", 10, 50);
+
+        Duration timeout = service.timeoutFor("channel-search", RequestKind.PAGE, "https://fast.example.com/b.jpg", Duration.ofMillis(3000));
+
+        assertThat(timeout.toMillis()).isBetween(30L, 60L);
+    }
+
+    @Test
+    void timeoutFor_shouldGrowForSlowHost_clampedToCallSiteMax() {
+        record("https://slow.example.com/a.jpg", 800, 50);
+
+        Duration timeout = service.timeoutFor("direct-url", RequestKind.PAGE, "https://slow.example.com/a.jpg", Duration.ofMillis(50));
+
+        assertThat(timeout).isEqualTo(Duration.ofMillis(400));
+    }
+
+    @Test
+    void timeoutFor_shouldKeepKindsOfRequestApart() {
+        record("https://cdn.example.com/a.jpg", 800, 50);
+
+        Duration timeout = service.timeoutFor("direct-url", RequestKind.PROBE, "https://cdn.example.com/a.jpg", Duration.ofMillis(50));
+
+        assertThat(timeout).isEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    void timeoutFor_shouldRecover_whenHostSlowsDownPastItsLearnedTimeout() {
+        String url = "https://slowing.example.com/a.jpg";
+        record(url, 10, 50);
+        Duration learned = service.timeoutFor("channel-search", RequestKind.PAGE, url, Duration.ofMillis(3000));
+
+        // The host now takes 150ms, far beyond the learned timeout
+        String answer = null;
+        for (int attempt = 0; attempt < 10 && answer == null; attempt++) {
+            Duration timeout = service.timeoutFor("channel-search", RequestKind.PAGE, url, Duration.ofMillis(3000));
+            answer = tracker.time(RequestKind.PAGE, url, () -> Mono.delay(Duration.ofMillis(150)).thenReturn("page"))
+                .transform(tracker.timeout(RequestKind.PAGE, url, timeout))
+                .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                .block(Duration.ofSeconds(1));
+        }
+
+        assertThat(learned).isLessThan(Duration.ofMillis(150));
+        assertThat(answer).isEqualTo("page");
+        assertThat(service.timeoutFor("channel-search", RequestKind.PAGE, url, Duration.ofMillis(3000)))
+            .isGreaterThan(Duration.ofMillis(150));
+    }
+
+    private void record(String url, long millis, int samples) {
+        for (int i = 0; i < samples; i++) {
+            tracker.record(RequestKind.PAGE, url, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.BatchItemResult;
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.example.imagefetch.dto.ImageFetchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class BatchImageFetchServiceTest {
+
+    @Mock
+    private ImageCollectionService imageCollectionService;
+
+    private BatchImageFetchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchImageFetchService(
+            imageCollectionService,
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator()
+        );
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+
+        lenient().when(imageCollectionService.fetchImagesReactive(any()))
+            .thenAnswer(invocation -> {
+                ImageFetchRequest request = invocation.getArgument(0);
+                return Mono.just(new ImageFetchResponse(request.itemName().length(), List.of()));
+            });
+    }
+
+    @Test
+    void fetchAll_shouldProcessEveryItem_whenBodyIsJsonArray() {
+        List<BatchItemResult> results = fetchAll("[{\"itemName\":\"A\"},{\"itemName\":\"BB\"},{\"itemName\":\"CCC\"}]");
+
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(BatchItemResult::index).containsExactlyInAnyOrder(0L, 1L, 2L);
+        assertThat(results).allSatisfy(result -> assertThat(result.error()).isNull());
+    }
+
+    @Test
+    void fetchAll_shouldProcessEveryItem_whenBodyIsNdjson() {
+        List<BatchItemResult> results = fetchAll("{\"itemName\":\"A\"}\n{\"itemName\":\"BB\"}\n");
+
+        assertThat(results).extracting(BatchItemResult::itemName).containsExactlyInAnyOrder("A", "BB");
+    }
+
+    @Test
+    void fetchAll_shouldReportInvalidItem_withoutFailingBatch() {
+        List<BatchItemResult> results = fetchAll("{\"itemName\":\"A\"}\n{\"optionName\":\"no name\"}\n");
+
+        assertThat(results).hasSize(2);
+        BatchItemResult invalid = results.stream().filter(result -> result.index() == 1).findFirst().orElseThrow();
+        assertThat(invalid.error()).isEqualTo("itemName is required");
+        assertThat(invalid.response()).isNull();
+    }
+
+    private List<BatchItemResult> fetchAll(String body) {
+        return service.fetchAll(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+            .collectList()
+            .block();
+    }
+}
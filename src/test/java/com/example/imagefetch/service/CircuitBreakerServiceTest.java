@@ -0,0 +1,97 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.CircuitOpenException;
+import com.example.imagefetch.exception.InvalidUrlException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerServiceTest {
+
+    private static final String STRATEGY = "DirectUrlImageFetchStrategy";
+
+    private CircuitBreakerService service;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("image-fetch.circuit-breaker.strategy.window-size", "4")
+            .withProperty("image-fetch.circuit-breaker.strategy.minimum-calls", "4")
+            .withProperty("image-fetch.circuit-breaker.strategy.failure-rate", "0.5");
+        service = new CircuitBreakerService(environment, 100);
+        ReflectionTestUtils.setField(service, "enabled", true);
+    }
+
+    @Test
+    void executeForStrategy_shouldOpen_whenStrategySwallowsItsErrors() {
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<Flux<String>> failing = () -> {
+            runs.incrementAndGet();
+            return swallowing(Flux.error(new IOException("Connection reset")));
+        };
+
+        for (int i = 0; i < 4; i++) {
+            run(service.executeForStrategy(STRATEGY, failing));
+        }
+
+        StepVerifier.create(service.executeForStrategy(STRATEGY, failing))
+            .expectError(CircuitOpenException.class)
+            .verify();
+        assertThat(runs.get()).isEqualTo(4);
+        assertThat(strategy()).containsEntry("state", "OPEN").containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void executeForStrategy_shouldNotCountBadInput() {
+        WebClientResponseException notFound = WebClientResponseException.create(
+            HttpStatus.NOT_FOUND.value(), "Not Found", HttpHeaders.EMPTY, null, null);
+
+        for (int i = 0; i < 5; i++) {
+            run(service.executeForStrategy(STRATEGY, () -> swallowing(Flux.error(notFound))));
+            // Rethrown to the caller, like SalesUrlImageFetchStrategy does for invalid sales URLs
+            run(service.executeForStrategy(STRATEGY,
+                    () -> Flux.<String>error(new InvalidUrlException("Sales URL cannot be empty"))
+                        .transform(service::reportFailures))
+                .onErrorResume(e -> Flux.empty()));
+        }
+
+        assertThat(strategy()).containsEntry("state", "CLOSED").containsEntry("calls", 0);
+    }
+
+    /**
+     * Reports and then swallows errors, the way the strategies answer failures with no results
+     */
+    private Flux<String> swallowing(Flux<String> results) {
+        return results
+            .transform(service::reportFailures)
+            .onErrorResume(e -> Flux.empty());
+    }
+
+    private static void run(Flux<String> results) {
+        results.collectList().block(Duration.ofSeconds(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> strategy() {
+        Map<String, Object> strategies = (Map<String, Object>) service.stats().get("strategies");
+        Map<String, Object> entry = (Map<String, Object>) strategies.get(STRATEGY);
+        return Map.of(
+            "state", entry.get("state").toString(),
+            "calls", entry.get("calls"),
+            "rejected", entry.get("rejected"));
+    }
+}
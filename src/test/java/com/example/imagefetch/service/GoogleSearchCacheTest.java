@@ -0,0 +1,79 @@
+package com.example.imagefetch.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GoogleSearchCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void get_shouldMatchEquivalentQueries_whenNormalized() {
+        GoogleSearchCache cache = createCache(1_048_576L);
+
+        cache.put("나이키  에어맥스 BLACK", List.of("https://example.com/a.jpg"));
+
+        assertThat(cache.get(" 나이키 에어맥스 ｂｌａｃｋ")).contains(List.of("https://example.com/a.jpg"));
+    }
+
+    @Test
+    void put_shouldEvict_whenOverByteBudget() {
+        // Each entry weighs about 200 bytes, so at most three fit
+        GoogleSearchCache cache = createCache(700L);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("query " + i, List.of("https://example.com/" + i + ".jpg"));
+        }
+
+        assertThat(cache.size()).isBetween(1L, 3L);
+    }
+
+    @Test
+    void save_shouldRestoreEntries_whenLoadedAgain() {
+        GoogleSearchCache cache = createCache(1_048_576L);
+        cache.put("item", List.of("https://example.com/a.jpg", "https://example.com/b.jpg"));
+        cache.save();
+
+        GoogleSearchCache restored = createCache(1_048_576L);
+
+        assertThat(restored.get("item")).contains(List.of("https://example.com/a.jpg", "https://example.com/b.jpg"));
+    }
+
+    @Test
+    void flush_shouldWriteOnlyWhenEntriesWereAdded() throws Exception {
+        GoogleSearchCache cache = createCache(1_048_576L);
+        Path file = tempDir.resolve("google-search-cache.json");
+
+        cache.flush();
+        assertThat(file).doesNotExist();
+
+        cache.put("item", List.of("https://example.com/a.jpg"));
+        cache.flush();
+        assertThat(file).exists();
+
+        Files.delete(file);
+        cache.flush();
+        assertThat(file).doesNotExist();
+        assertThat(createCache(1_048_576L).get("item")).isEmpty();
+    }
+
+    private GoogleSearchCache createCache(long maxBytes) {
+        GoogleSearchCache cache = new GoogleSearchCache(new ObjectMapper(), new ImageFetchMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "file", tempDir.resolve("google-search-cache.json").toString());
+        cache.open();
+        return cache;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.service.HostLatencyTracker.RequestKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingServiceTest {
+
+    private static final String URL = "https://cdn.example.com/a.jpg";
+
+    private HostLatencyTracker tracker;
+    private HedgingService service;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new HostLatencyTracker(100);
+        ReflectionTestUtils.setField(tracker, "minSamples", 20L);
+        ReflectionTestUtils.setField(tracker, "window", 1024L);
+        for (int i = 0; i < 20; i++) {
+            tracker.record(RequestKind.DOWNLOAD, URL, TimeUnit.MILLISECONDS.toNanos(10));
+            tracker.record(RequestKind.PROBE, URL, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        service = new HedgingService(tracker);
+        ReflectionTestUtils.setField(service, "maxBurst", 10);
+        ReflectionTestUtils.setField(service, "minDelayMs", 5L);
+    }
+
+    @Test
+    void execute_shouldTakeHedgedAnswer_whenFirstAttemptIsSlow() {
+        ReflectionTestUtils.setField(service, "budgetRatio", 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = service.execute("direct-url", RequestKind.DOWNLOAD, URL, true, () -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).thenReturn("slow")
+                : Mono.just("hedged"))
+            .block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("hedged");
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(callSite("direct-url")).containsEntry("hedgesSent", 1L).containsEntry("hedgesWon", 1L);
+    }
+
+    @Test
+    void execute_shouldNotHedge_whenBudgetIsExhausted() {
+        ReflectionTestUtils.setField(service, "budgetRatio", 0.05);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = service.execute("direct-url", RequestKind.DOWNLOAD, URL, true, () -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+            })
+            .block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(callSite("direct-url")).containsEntry("budgetExhausted", 1L);
+    }
+
+    @Test
+    void execute_shouldNotHedge_whenHostHasNoHistory() {
+        ReflectionTestUtils.setField(service, "budgetRatio", 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        service.execute("direct-url", RequestKind.DOWNLOAD, "https://new.example.com/a.jpg", true, () -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(50)).thenReturn("primary");
+            })
+            .block(Duration.ofSeconds(1));
+
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_shouldNotSpendAnotherCallSitesBudget() {
+        ReflectionTestUtils.setField(service, "budgetRatio", 0.5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Two quick probes earn one hedge for "probe"; a slow "direct-url" request has earned only half
+        for (int i = 0; i < 2; i++) {
+            service.execute("probe", RequestKind.PROBE, URL, true, () -> Mono.just("fast")).block(Duration.ofSeconds(1));
+        }
+        String result = service.execute("direct-url", RequestKind.DOWNLOAD, URL, true, () -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+            })
+            .block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(callSite("direct-url")).containsEntry("budgetExhausted", 1L);
+        assertThat(callSite("probe")).containsEntry("budget", 1.0);
+    }
+
+    @Test
+    void execute_shouldNotHedge_whenHedgePermitIsDenied() {
+        ReflectionTestUtils.setField(service, "budgetRatio", 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = service.execute("google-search", RequestKind.DOWNLOAD, URL, true, () -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+            }, () -> Mono.error(new IllegalStateException("no permit")))
+            .block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(callSite("google-search"))
+            .containsEntry("permitDenied", 1L)
+            .containsEntry("hedgesSent", 0L)
+            .containsEntry("budget", 1.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> callSite(String name) {
+        return (Map<String, Object>) ((Map<String, Object>) service.stats().get("callSites")).get(name);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.CircuitOpenException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostReliabilityTrackerTest {
+
+    private static final String IMAGE_URL = "https://cdn.example.com/photo.jpg";
+
+    private final HostReliabilityTracker tracker = new HostReliabilityTracker(100);
+
+    @Test
+    void track_shouldRaiseReliability_onSuccess_andLowerItOnTimeout() {
+        double prior = tracker.reliability(IMAGE_URL);
+
+        tracker.track(IMAGE_URL, Mono.just("bytes")).block();
+        double afterSuccess = tracker.reliability(IMAGE_URL);
+        StepVerifier.create(tracker.track(IMAGE_URL, Mono.never().timeout(Duration.ofMillis(10))))
+            .expectError(TimeoutException.class)
+            .verify();
+
+        assertThat(afterSuccess).isGreaterThan(prior);
+        assertThat(tracker.reliability(IMAGE_URL)).isLessThan(afterSuccess);
+    }
+
+    @Test
+    void track_shouldIgnoreCallsThatNeverReachedHost() {
+        double prior = tracker.reliability(IMAGE_URL);
+
+        StepVerifier.create(tracker.track(IMAGE_URL, Mono.error(new CircuitOpenException("open"))))
+            .expectError(CircuitOpenException.class)
+            .verify();
+        StepVerifier.create(tracker.track(IMAGE_URL, Mono.never()))
+            .thenCancel()
+            .verify();
+
+        assertThat(tracker.reliability(IMAGE_URL)).isEqualTo(prior);
+    }
+
+    @Test
+    void reliability_shouldBeSharedAcrossUrlsOfSameHost() {
+        StepVerifier.create(tracker.track("https://cdn.example.com/a.jpg", Mono.error(new IllegalStateException("reset"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+
+        assertThat(tracker.reliability("https://CDN.example.com/b.jpg"))
+            .isEqualTo(tracker.reliability("https://cdn.example.com/a.jpg"))
+            .isLessThan(tracker.reliability("https://other.example.com/a.jpg"));
+    }
+}
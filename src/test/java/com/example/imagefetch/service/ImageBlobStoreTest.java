@@ -0,0 +1,134 @@
+package com.example.imagefetch.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageBlobStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageBlobStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void put_shouldStoreContentOnce_forAliasUrls() throws Exception {
+        store = openStore(1024);
+
+        String first = store.put("https://cdn1.example.com/a.jpg", bytes("same photo"));
+        String second = store.put("https://cdn2.example.com/a.jpg?w=800", bytes("same photo"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(store.hashOf("https://CDN2.example.com/a.jpg?w=800")).contains(first);
+        assertThat(store.stats()).containsEntry("blobs", 1).containsEntry("deduplicated", 1L);
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenOverBudget() throws Exception {
+        store = openStore(20);
+
+        store.put("https://example.com/1.jpg", bytes("0123456789"));
+        store.put("https://example.com/2.jpg", bytes("abcdefghij"));
+        store.get("https://example.com/1.jpg");
+        store.put("https://example.com/3.jpg", bytes("ABCDEFGHIJ"));
+
+        assertThat(store.get("https://example.com/2.jpg")).isEmpty();
+        assertThat(store.get("https://example.com/1.jpg")).isPresent();
+        assertThat(store.get("https://example.com/3.jpg")).isPresent();
+    }
+
+    @Test
+    void open_shouldRestoreBlobsAndAliases_acrossRestarts() throws Exception {
+        store = openStore(1024);
+        store.put("https://example.com/a.jpg", bytes("photo"));
+        store.close();
+
+        store = openStore(1024);
+
+        assertThat(store.get("https://example.com/a.jpg")).hasValueSatisfying(
+            content -> assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("photo"));
+    }
+
+    @Test
+    void getOrDownload_shouldNotDownload_whenAliasStored() throws Exception {
+        store = openStore(1024);
+        store.put("https://example.com/a.jpg", bytes("photo"));
+        AtomicInteger downloads = new AtomicInteger();
+
+        byte[] content = store.getOrDownload("https://example.com/a.jpg",
+            () -> Mono.fromSupplier(() -> {
+                downloads.incrementAndGet();
+                return bytes("downloaded");
+            })).block();
+
+        assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("photo");
+        assertThat(downloads.get()).isZero();
+    }
+
+    @Test
+    void getOrDownload_shouldAliasContent_whenDownloadCompletes() throws Exception {
+        store = openStore(1024);
+
+        store.getOrDownload("https://cdn1.example.com/a.jpg", () -> Mono.just(bytes("same photo"))).block();
+        store.getOrDownload("https://cdn2.example.com/b.jpg", () -> Mono.just(bytes("same photo"))).block();
+
+        assertThat(store.hashOf("https://cdn1.example.com/a.jpg")).isPresent();
+        assertThat(store.hashOf("https://cdn2.example.com/b.jpg")).isEqualTo(store.hashOf("https://cdn1.example.com/a.jpg"));
+    }
+
+    @Test
+    void put_shouldDropAliases_ofEvictedBlobs() throws Exception {
+        store = openStore(20);
+
+        store.put("https://example.com/1.jpg", bytes("0123456789"));
+        store.put("https://example.com/2.jpg", bytes("abcdefghij"));
+        store.put("https://example.com/3.jpg", bytes("ABCDEFGHIJ"));
+
+        assertThat(store.hashOf("https://example.com/1.jpg")).isEmpty();
+        assertThat(store.hashOf("https://example.com/3.jpg")).isPresent();
+        assertThat(store.stats()).containsEntry("aliases", 2);
+    }
+
+    @Test
+    void compactAliases_shouldRewriteLog_withLiveAliasesOnly() throws Exception {
+        store = openStore(1024);
+        store.put("https://example.com/a.jpg", bytes("v1"));
+        store.put("https://example.com/a.jpg", bytes("v2"));
+        store.put("https://example.com/a.jpg", bytes("v3"));
+        Path aliasFile = tempDir.resolve("aliases.tsv");
+        assertThat(Files.readAllLines(aliasFile)).hasSize(3);
+
+        store.compactAliases();
+        store.put("https://example.com/b.jpg", bytes("other"));
+
+        assertThat(Files.readAllLines(aliasFile)).hasSize(2)
+            .allMatch(line -> line.endsWith(store.hashOf(line.substring(0, line.indexOf('\t'))).orElseThrow()));
+    }
+
+    private ImageBlobStore openStore(long maxBytes) throws Exception {
+        ImageBlobStore opened = new ImageBlobStore();
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(opened, "maxBytes", maxBytes);
+        opened.open();
+        return opened;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageFetchEvent;
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.example.imagefetch.dto.ImageFetchResponse;
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.scoring.ImageRanker;
+import com.example.imagefetch.strategy.ImageFetchStrategy;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageCollectionServiceTest {
+
+    private final ImageFetchRequest request = new ImageFetchRequest(
+        "Test Item",
+        null,
+        "https://example.com/image.jpg",
+        "https://example.com/product",
+        null
+    );
+
+    @Test
+    void fetchImages_shouldKeepPriorityOrder_whenHigherPriorityFinishesLast() {
+        ImageFetchStrategy slowDirect = new FakeStrategy(1, 200, result("direct.jpg", ImageSource.DIRECT));
+        ImageFetchStrategy fastSales = new FakeStrategy(2, 0, result("sales.jpg", ImageSource.SALES_URL));
+
+        ImageCollectionService service = createService(List.of(fastSales, slowDirect), true);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url)
+            .containsExactly("direct.jpg", "sales.jpg");
+    }
+
+    @Test
+    void fetchImages_shouldCancelLowerPriority_whenEnoughImagesCollected() {
+        FakeStrategy direct = new FakeStrategy(1, 0,
+            result("a.jpg", ImageSource.DIRECT),
+            result("b.jpg", ImageSource.DIRECT),
+            result("c.jpg", ImageSource.DIRECT));
+        FakeStrategy slowSearch = new FakeStrategy(3, 5000, result("search.jpg", ImageSource.CHANNEL_SEARCH));
+
+        ImageCollectionService service = createService(List.of(direct, slowSearch), true);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url)
+            .containsExactly("a.jpg", "b.jpg", "c.jpg");
+        assertThat(response.totalLoadingTimeMs()).isLessThan(5000);
+        assertThat(slowSearch.completed.get()).isFalse();
+    }
+
+    @Test
+    void fetchImages_shouldRunLowerPriority_whenScoringEnabled() {
+        FakeStrategy direct = new FakeStrategy(1, 0,
+            result("a.jpg", ImageSource.DIRECT),
+            result("b.jpg", ImageSource.DIRECT),
+            result("c.jpg", ImageSource.DIRECT));
+        FakeStrategy search = new FakeStrategy(3, 100, result("search.jpg", ImageSource.CHANNEL_SEARCH));
+        ImageRanker ranker = new ImageRanker(List.of());
+        ReflectionTestUtils.setField(ranker, "enabled", true);
+
+        ImageCollectionService service = createService(List.of(direct, search), true, new FakeHashService(Map.of()), ranker);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).hasSize(3);
+        assertThat(search.completed.get()).isTrue();
+    }
+
+    @Test
+    void fetchImages_shouldWaitForLowerPriority_whenNotEnoughImages() {
+        FakeStrategy direct = new FakeStrategy(1, 0, result("direct.jpg", ImageSource.DIRECT));
+        FakeStrategy search = new FakeStrategy(3, 100, result("search.jpg", ImageSource.CHANNEL_SEARCH));
+
+        ImageCollectionService service = createService(List.of(direct, search), true);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url)
+            .containsExactly("direct.jpg", "search.jpg");
+    }
+
+    @Test
+    void fetchImages_shouldRunInPriorityOrder_whenSequential() {
+        ImageFetchStrategy search = new FakeStrategy(3, 0, result("search.jpg", ImageSource.CHANNEL_SEARCH));
+        ImageFetchStrategy direct = new FakeStrategy(1, 0, result("direct.jpg", ImageSource.DIRECT));
+
+        ImageCollectionService service = createService(List.of(search, direct), false);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url)
+            .containsExactly("direct.jpg", "search.jpg");
+    }
+
+    @Test
+    void fetchImages_shouldCollapseDuplicateUrls_acrossStrategies() {
+        ImageFetchStrategy direct = new FakeStrategy(1, 0, result("https://example.com/a.jpg", ImageSource.DIRECT));
+        ImageFetchStrategy sales = new FakeStrategy(2, 0,
+            result("https://EXAMPLE.com:443/a.jpg", ImageSource.SALES_URL),
+            result("https://example.com/b.jpg", ImageSource.SALES_URL));
+
+        ImageCollectionService service = createService(List.of(direct, sales), true);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url)
+            .containsExactly("https://example.com/a.jpg", "https://example.com/b.jpg");
+    }
+
+    @Test
+    void fetchImages_shouldDropNearDuplicates_andFillSlotsWithDistinctImages() {
+        ImageFetchStrategy sales = new FakeStrategy(2, 0,
+            result("https://shop.example.com/og.jpg", ImageSource.SALES_URL),
+            result("https://shop.example.com/detail.jpg", ImageSource.SALES_URL),
+            result("https://shop.example.com/side.jpg", ImageSource.SALES_URL));
+        ImageFetchStrategy search = new FakeStrategy(3, 0,
+            result("https://other.example.com/back.jpg", ImageSource.CHANNEL_SEARCH));
+
+        FakeHashService hashService = new FakeHashService(Map.of(
+            "https://shop.example.com/og.jpg", 0L,
+            "https://shop.example.com/detail.jpg", 0b111L,
+            "https://shop.example.com/side.jpg", 0xFFFFL,
+            "https://other.example.com/back.jpg", 0xFFFF_0000_0000L));
+        ImageCollectionService service = createService(List.of(sales, search), true, hashService);
+
+        ImageFetchResponse response = service.fetchImages(request);
+
+        assertThat(response.images()).extracting(ImageResult::url).containsExactly(
+            "https://shop.example.com/og.jpg",
+            "https://shop.example.com/side.jpg",
+            "https://other.example.com/back.jpg");
+    }
+
+    @Test
+    void streamImages_shouldEmitFastImageFirst_thenSummaryInPriorityOrder() {
+        ImageFetchStrategy slowDirect = new FakeStrategy(1, 200, result("direct.jpg", ImageSource.DIRECT));
+        ImageFetchStrategy fastSales = new FakeStrategy(2, 0, result("sales.jpg", ImageSource.SALES_URL));
+
+        ImageCollectionService service = createService(List.of(slowDirect, fastSales), true);
+
+        List<ImageFetchEvent> events = service.streamImages(request).collectList().block();
+
+        assertThat(events).extracting(ImageFetchEvent::type)
+            .containsExactly(ImageFetchEvent.IMAGE, ImageFetchEvent.IMAGE, ImageFetchEvent.SUMMARY);
+        assertThat(((ImageResult) events.get(0).data()).url()).isEqualTo("sales.jpg");
+        assertThat(((ImageFetchResponse) events.get(2).data()).images()).extracting(ImageResult::url)
+            .containsExactly("direct.jpg", "sales.jpg");
+    }
+
+    private ImageCollectionService createService(List<ImageFetchStrategy> strategies, boolean concurrent) {
+        return createService(strategies, concurrent, new FakeHashService(Map.of()));
+    }
+
+    private ImageCollectionService createService(List<ImageFetchStrategy> strategies, boolean concurrent,
+                                                 PerceptualHashService hashService) {
+        return createService(strategies, concurrent, hashService, new ImageRanker(List.of()));
+    }
+
+    private ImageCollectionService createService(List<ImageFetchStrategy> strategies, boolean concurrent,
+                                                 PerceptualHashService hashService, ImageRanker ranker) {
+        ImageCollectionService service = new ImageCollectionService(strategies, Schedulers.boundedElastic(),
+            new ImageResultCache(new ImageFetchMetrics(new SimpleMeterRegistry())), new ImageBlobStore(), hashService, ranker,
+            new CircuitBreakerService(new MockEnvironment(), 100), new ImageFetchMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "maxResults", 3);
+        ReflectionTestUtils.setField(service, "concurrent", concurrent);
+        return service;
+    }
+
+    private static ImageResult result(String url, ImageSource source) {
+        return new ImageResult(url, source, 0L, "unknown", 0L);
+    }
+
+    private static class FakeStrategy implements ImageFetchStrategy {
+
+        private final int priority;
+        private final long delayMs;
+        private final List<ImageResult> results;
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        FakeStrategy(int priority, long delayMs, ImageResult... results) {
+            this.priority = priority;
+            this.delayMs = delayMs;
+            this.results = List.of(results);
+        }
+
+        @Override
+        public boolean canHandle(ImageFetchRequest request) {
+            return true;
+        }
+
+        @Override
+        public List<ImageResult> fetchImages(ImageFetchRequest request) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            completed.set(true);
+            return results;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public ImageSource getSource() {
+            return ImageSource.DIRECT;
+        }
+    }
+
+    private static class FakeHashService extends PerceptualHashService {
+
+        private final Map<String, Long> hashes;
+
+        FakeHashService(Map<String, Long> hashes) {
+            super(WebClient.create(), new ImageBlobStore(), new HostReliabilityTracker(100),
+                new SingleFlightRegistry(new SimpleMeterRegistry()), new ImageFetchMetrics(new SimpleMeterRegistry()),
+                100, 1024);
+            this.hashes = hashes;
+            ReflectionTestUtils.setField(this, "hammingThreshold", 10);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return !hashes.isEmpty();
+        }
+
+        @Override
+        public Mono<Long> awaitHash(String imageUrl) {
+            return Mono.justOrEmpty(hashes.get(imageUrl));
+        }
+
+        @Override
+        public Optional<Long> cachedHash(String imageUrl) {
+            return Optional.ofNullable(hashes.get(imageUrl));
+        }
+
+        @Override
+        public Disposable prefetch(String imageUrl) {
+            return Disposables.disposed();
+        }
+    }
+}
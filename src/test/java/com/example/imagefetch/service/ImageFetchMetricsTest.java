@@ -0,0 +1,109 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.dto.SalesChannel;
+import com.example.imagefetch.exception.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageFetchMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ImageFetchMetrics metrics = new ImageFetchMetrics(registry);
+
+    @Test
+    void timeStrategy_shouldTagSuccess_andEmptyRuns() {
+        StepVerifier.create(metrics.timeStrategy(ImageSource.SALES_URL, SalesChannel.NAVER, Flux.just("a", "b")))
+            .expectNextCount(2)
+            .verifyComplete();
+        StepVerifier.create(metrics.timeStrategy(ImageSource.SALES_URL, SalesChannel.NAVER, Flux.empty()))
+            .verifyComplete();
+
+        assertThat(strategyCount("sales-url", "naver", "success")).isEqualTo(1);
+        assertThat(strategyCount("sales-url", "naver", "empty")).isEqualTo(1);
+    }
+
+    @Test
+    void timeStrategy_shouldTellTimeoutsAndRejectionsFromErrors() {
+        StepVerifier.create(metrics.timeStrategy(ImageSource.DIRECT, null, Flux.never().timeout(Duration.ofMillis(10))))
+            .expectError(TimeoutException.class)
+            .verify();
+        StepVerifier.create(metrics.timeStrategy(ImageSource.DIRECT, null,
+                Flux.error(new CircuitOpenException("open"))))
+            .expectError(CircuitOpenException.class)
+            .verify();
+        StepVerifier.create(metrics.timeStrategy(ImageSource.DIRECT, null,
+                Flux.error(new IllegalStateException("boom"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+
+        assertThat(strategyCount("direct", "none", "timeout")).isEqualTo(1);
+        assertThat(strategyCount("direct", "none", "rejected")).isEqualTo(1);
+        assertThat(strategyCount("direct", "none", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void timeStrategy_shouldRecordCancelledRuns() {
+        StepVerifier.create(metrics.timeStrategy(ImageSource.CHANNEL_SEARCH, SalesChannel.COUPANG, Flux.never()))
+            .thenCancel()
+            .verify();
+
+        assertThat(strategyCount("channel-search", "coupang", "cancelled")).isEqualTo(1);
+    }
+
+    @Test
+    void recordStrategyRejected_shouldTagSkippedRunsAsRejected() {
+        metrics.recordStrategyRejected(ImageSource.SALES_URL, SalesChannel.COUPANG);
+
+        assertThat(strategyCount("sales-url", "coupang", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    void recordDownload_shouldSumBytesPerOperationAndSource() {
+        metrics.recordDownload("image", ImageSource.DIRECT, 1000);
+        metrics.recordDownload("image", ImageSource.DIRECT, 500);
+        metrics.recordPostProcessingDownload("thumbnail", 300);
+
+        assertThat(downloadedBytes("image", "direct")).isEqualTo(1500);
+        assertThat(downloadedBytes("thumbnail", ImageFetchMetrics.POST_PROCESSING)).isEqualTo(300);
+    }
+
+    @Test
+    void countDownload_shouldRecordBytesRead_whenBodyIsCancelledEarly() {
+        Flux<DataBuffer> body = Flux.concat(
+            Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[64])),
+            Flux.<DataBuffer>never());
+
+        StepVerifier.create(metrics.countDownload("probe", ImageSource.SALES_URL, body).take(1))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertThat(downloadedBytes("probe", "sales-url")).isEqualTo(64);
+    }
+
+    private double downloadedBytes(String operation, String source) {
+        return registry.get("image.fetch.download.bytes")
+            .tag("operation", operation)
+            .tag("source", source)
+            .summary()
+            .totalAmount();
+    }
+
+    private long strategyCount(String source, String channel, String outcome) {
+        return registry.get("image.fetch.strategy")
+            .tag("source", source)
+            .tag("channel", channel)
+            .tag("outcome", outcome)
+            .timer()
+            .count();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.imagefetch.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageMetadataIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageMetadataIndex index;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void get_shouldReturnStoredMetadata_forCanonicallyEqualUrl() throws Exception {
+        index = openIndex(1024);
+        IndexedImageMetadata metadata = new IndexedImageMetadata(
+            800, 600, 148480L, "image/jpeg", "\"v1\"", 1_700_000_000_000L, 1_700_000_100_000L);
+
+        index.put("https://Example.com/images/a.jpg", metadata);
+
+        assertThat(index.get("https://example.com:443/images/a.jpg")).contains(metadata);
+        assertThat(index.get("https://example.com/images/b.jpg")).isEmpty();
+    }
+
+    @Test
+    void open_shouldKeepEntries_acrossRestarts() throws Exception {
+        index = openIndex(1024);
+        IndexedImageMetadata metadata = new IndexedImageMetadata(10, 20, 30L, null, null, -1L, 40L);
+        index.put("https://example.com/a.png", metadata);
+        index.close();
+
+        index = openIndex(1024);
+
+        assertThat(index.get("https://example.com/a.png")).contains(metadata);
+    }
+
+    @Test
+    void put_shouldReplaceLeastRecentlyVerified_whenBucketFull() throws Exception {
+        index = openIndex(ImageMetadataIndex.BUCKET_SLOTS);
+
+        for (int i = 0; i <= ImageMetadataIndex.BUCKET_SLOTS; i++) {
+            index.put("https://example.com/" + i + ".jpg", new IndexedImageMetadata(i, i, i, null, null, -1L, 100L + i));
+        }
+
+        assertThat(index.get("https://example.com/0.jpg")).isEmpty();
+        assertThat(index.get("https://example.com/" + ImageMetadataIndex.BUCKET_SLOTS + ".jpg")).isPresent();
+        assertThat(index.stats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void put_shouldDropValidators_thatDoNotFitRecord() throws Exception {
+        index = openIndex(1024);
+
+        index.put("https://example.com/a.jpg", new IndexedImageMetadata(
+            1, 1, 1L, "image/jpeg", "\"" + "x".repeat(100) + "\"", -1L, 1L));
+
+        assertThat(index.get("https://example.com/a.jpg").orElseThrow().etag()).isNull();
+    }
+
+    private ImageMetadataIndex openIndex(int capacity) throws Exception {
+        ImageMetadataIndex opened = new ImageMetadataIndex();
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "file", tempDir.resolve("metadata-index.dat").toString());
+        ReflectionTestUtils.setField(opened, "capacity", capacity);
+        opened.open();
+        return opened;
+    }
+}
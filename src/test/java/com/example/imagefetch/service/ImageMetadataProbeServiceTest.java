@@ -0,0 +1,165 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageSource;
+import com.example.imagefetch.util.ImageDimensionParser;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageMetadataProbeServiceTest {
+
+    private static final String IMAGE_URL = "https://cdn.example.com/photo.png";
+    private static final int RANGE_BYTES = 1024;
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private final ImageMetadataIndex index = new ImageMetadataIndex();
+    private final HostLatencyTracker latencyTracker = new HostLatencyTracker(100);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void probe_shouldReadDimensionsFromRange_andTotalSizeFromContentRange() throws IOException {
+        byte[] image = png(640, 480);
+        ImageMetadataProbeService service = service(request -> Mono.just(ClientResponse.create(HttpStatus.PARTIAL_CONTENT)
+            .header(HttpHeaders.CONTENT_TYPE, "image/png")
+            .header(HttpHeaders.CONTENT_RANGE, "bytes 0-" + (RANGE_BYTES - 1) + "/146515")
+            .body(Flux.just(wrap(Arrays.copyOf(image, Math.min(image.length, RANGE_BYTES)))))
+            .build()));
+
+        ImageMetadata metadata = service.probe(IMAGE_URL, ImageSource.DIRECT, Duration.ofSeconds(1)).block();
+
+        assertThat(metadata.resolution()).isEqualTo("640x480");
+        assertThat(metadata.fileSizeBytes()).isEqualTo(146515L);
+        assertThat(metadata.contentType()).isEqualTo("image/png");
+        assertThat(requests.get(0).headers().getFirst(HttpHeaders.RANGE)).isEqualTo("bytes=0-" + (RANGE_BYTES - 1));
+    }
+
+    @Test
+    void probe_shouldFallBackToContentLength_whenServerIgnoresRange() throws IOException {
+        byte[] image = png(320, 200);
+        ImageMetadataProbeService service = service(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, "image/png")
+            .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(image.length))
+            .body(Flux.just(wrap(image)))
+            .build()));
+
+        ImageMetadata metadata = service.probe(IMAGE_URL, ImageSource.DIRECT, Duration.ofSeconds(1)).block();
+
+        assertThat(metadata.resolution()).isEqualTo("320x200");
+        assertThat(metadata.fileSizeBytes()).isEqualTo(image.length);
+    }
+
+    @Test
+    void probe_shouldCancelBody_onceHeaderIsParsed() throws IOException {
+        byte[] header = Arrays.copyOf(png(1920, 1080), 64);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        // The rest of the body never arrives; the probe must not wait for it
+        Flux<DataBuffer> body = Flux.concat(Flux.just(wrap(header)), Flux.<DataBuffer>never())
+            .doOnCancel(() -> cancelled.set(true));
+        ImageMetadataProbeService service = service(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_LENGTH, "5242880")
+            .body(body)
+            .build()));
+
+        ImageMetadata metadata = service.probe(IMAGE_URL, ImageSource.DIRECT, Duration.ofSeconds(1)).block(Duration.ofSeconds(2));
+
+        assertThat(metadata.resolution()).isEqualTo("1920x1080");
+        assertThat(metadata.fileSizeBytes()).isEqualTo(5242880L);
+        assertThat(cancelled).isTrue();
+        assertThat(registry.get("image.fetch.download.bytes")
+                .tag("operation", "probe")
+                .tag("source", "direct")
+                .summary().totalAmount())
+            .isEqualTo(64);
+    }
+
+    @Test
+    void probe_shouldRevalidateWithETag_andReuseIndexedMetadataOn304() throws IOException {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "file", tempDir.resolve("metadata-index.dat").toString());
+        ReflectionTestUtils.setField(index, "capacity", 1024);
+        index.open();
+        byte[] image = png(800, 600);
+        ImageMetadataProbeService service = service(request -> Mono.just(
+            "\"v1\"".equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))
+                ? ClientResponse.create(HttpStatus.NOT_MODIFIED).build()
+                : ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, "image/png")
+                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(image.length))
+                    .header(HttpHeaders.ETAG, "\"v1\"")
+                    .body(Flux.just(wrap(image)))
+                    .build()));
+        // Every indexed entry is stale, so each probe goes to the server
+        ReflectionTestUtils.setField(service, "indexMaxAgeSeconds", 0L);
+
+        ImageMetadata probed = service.probe(IMAGE_URL, ImageSource.DIRECT, Duration.ofSeconds(1)).block();
+        ImageMetadata revalidated = service.probe(IMAGE_URL, ImageSource.DIRECT, Duration.ofSeconds(1)).block();
+
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH)).isNull();
+        assertThat(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+        assertThat(revalidated.resolution()).isEqualTo("800x600").isEqualTo(probed.resolution());
+        assertThat(revalidated.fileSizeBytes()).isEqualTo(image.length);
+        assertThat(index.get(IMAGE_URL)).hasValueSatisfying(entry -> assertThat(entry.etag()).isEqualTo("\"v1\""));
+    }
+
+    private ImageMetadataProbeService service(ExchangeFunction exchange) {
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.add(request);
+                return exchange.exchange(request);
+            })
+            .build();
+        ImageMetadataProbeService service = new ImageMetadataProbeService(webClient, new ImageDimensionParser(),
+            new SingleFlightRegistry(new SimpleMeterRegistry()), index, new HostReliabilityTracker(100), latencyTracker,
+            new HedgingService(latencyTracker), new CircuitBreakerService(new MockEnvironment(), 100),
+            new ImageFetchMetrics(registry));
+        ReflectionTestUtils.setField(service, "rangeBytes", RANGE_BYTES);
+        ReflectionTestUtils.setField(service, "indexMaxAgeSeconds", 86400L);
+        return service;
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.dto.ImageFetchRequest;
+import com.example.imagefetch.dto.ImageFetchResponse;
+import com.example.imagefetch.dto.ImageResult;
+import com.example.imagefetch.dto.ImageSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ImageResultCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ImageResultCache(new ImageFetchMetrics(meterRegistry));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_048_576L);
+        ReflectionTestUtils.setField(cache, "directSoftTtlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "directHardTtlSeconds", 7200L);
+        ReflectionTestUtils.setField(cache, "emptyTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "partialTtlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "maxResults", 1);
+    }
+
+    @Test
+    void getOrLoad_shouldServeFromCache_whenRequestNormalizesToSameKey() {
+        cache.init();
+
+        ImageFetchRequest first = request("  Nike   Air Max ", "https://example.com/a.jpg");
+        ImageFetchRequest second = request("ｎｉｋｅ air max", " https://example.com/a.jpg ");
+
+        ImageFetchResponse loaded = cache.getOrLoad(first, this::load).block();
+        ImageFetchResponse cached = cache.getOrLoad(second, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cached.images()).isEqualTo(loaded.images());
+        assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void init_shouldExportCacheStatsToMicrometer() {
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, this::load).block();
+
+        assertThat(cacheGets("hit")).isEqualTo(2);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "image-result").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void getOrLoad_shouldServeStaleAndRefreshOnce_whenSoftTtlExpired() {
+        ReflectionTestUtils.setField(cache, "directSoftTtlSeconds", 0L);
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, () -> Mono.never()).block();
+        cache.getOrLoad(request, () -> Mono.never()).block();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats())
+            .containsEntry("staleHits", 2L)
+            .containsEntry("refreshes", 1L);
+    }
+
+    @Test
+    void getOrLoad_shouldRefreshAgain_afterRefreshCompletedEmpty() {
+        ReflectionTestUtils.setField(cache, "directSoftTtlSeconds", 0L);
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, Mono::empty).block();
+        cache.getOrLoad(request, Mono::empty).block();
+
+        assertThat(cache.stats())
+            .containsEntry("staleHits", 2L)
+            .containsEntry("refreshes", 2L);
+    }
+
+    @Test
+    void getOrLoad_shouldKeepPartialResponse_onlyForPartialTtl() {
+        ReflectionTestUtils.setField(cache, "maxResults", 3);
+        ReflectionTestUtils.setField(cache, "partialTtlSeconds", 0L);
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getOrLoad_shouldPassThrough_whenDisabled() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, this::load).block();
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.stats()).containsEntry("enabled", false);
+    }
+
+    @Test
+    void getOrLoad_shouldRefreshWithRefreshLoader_notWithCallersLoader() {
+        ReflectionTestUtils.setField(cache, "directSoftTtlSeconds", 0L);
+        cache.init();
+        ImageFetchRequest request = request("item", "https://example.com/a.jpg");
+        AtomicInteger callerLoads = new AtomicInteger();
+
+        cache.getOrLoad(request, this::load).block();
+        cache.getOrLoad(request, () -> {
+            callerLoads.incrementAndGet();
+            return load();
+        }, this::load).block();
+
+        assertThat(callerLoads.get()).isZero();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tag("cache", "image-result")
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+
+    private Mono<ImageFetchResponse> load() {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new ImageFetchResponse(10L, List.of(
+                new ImageResult("https://example.com/a.jpg", ImageSource.DIRECT, 10L, "100x100", 1024L)));
+        });
+    }
+
+    private static ImageFetchRequest request(String itemName, String imageUrl) {
+        return new ImageFetchRequest(itemName, null, imageUrl, null, null);
+    }
+}
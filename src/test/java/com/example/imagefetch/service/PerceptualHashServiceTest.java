@@ -0,0 +1,97 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerceptualHashServiceTest {
+
+    private static final String IMAGE_URL = "https://cdn.example.com/photo.jpg";
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Test
+    void awaitHash_shouldGiveUpAfterMaxWait_andPrefetchShouldCancelDownload() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        PerceptualHashService service = service(request -> Mono.<ClientResponse>never()
+            .doOnCancel(() -> cancelled.set(true)));
+
+        Disposable prefetch = service.prefetch(IMAGE_URL);
+        long start = System.nanoTime();
+        Long hash = service.awaitHash(IMAGE_URL).block(Duration.ofSeconds(1));
+
+        assertThat(hash).isNull();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(cancelled).isFalse();
+
+        prefetch.dispose();
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void awaitHash_shouldReturnComputedHash_withoutDownloadingAgain() throws IOException {
+        byte[] image = jpeg(64, 64);
+        PerceptualHashService service = service(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, "image/jpeg")
+            .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(image)))
+            .build()));
+
+        Long computed = service.hashOf(IMAGE_URL).block(Duration.ofSeconds(1));
+
+        assertThat(computed).isNotNull();
+        assertThat(service.awaitHash(IMAGE_URL).block()).isEqualTo(computed);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void awaitHash_shouldNotStartDownload_whenNothingInFlight() {
+        PerceptualHashService service = service(request -> Mono.never());
+
+        assertThat(service.awaitHash(IMAGE_URL).block(Duration.ofSeconds(1))).isNull();
+        assertThat(requests.get()).isZero();
+    }
+
+    private PerceptualHashService service(ExchangeFunction exchange) {
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.incrementAndGet();
+                return exchange.exchange(request);
+            })
+            .build();
+        PerceptualHashService service = new PerceptualHashService(webClient, new ImageBlobStore(),
+            new HostReliabilityTracker(100), new SingleFlightRegistry(new SimpleMeterRegistry()),
+            new ImageFetchMetrics(new SimpleMeterRegistry()), 100, 1024 * 1024);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "hammingThreshold", 10);
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000);
+        ReflectionTestUtils.setField(service, "maxWaitMs", 20);
+        ReflectionTestUtils.setField(service, "maxPixels", 10_000_000L);
+        return service;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", out);
+        return out.toByteArray();
+    }
+}
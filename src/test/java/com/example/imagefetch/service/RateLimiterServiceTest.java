@@ -0,0 +1,84 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterServiceTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final RateLimiterService rateLimiter = new RateLimiterService(environment);
+
+    @Test
+    void acquire_shouldGrantBurst_thenRejectBeyondMaxWait() {
+        limit("burst", "1.0", "3", "0");
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(rateLimiter.acquire("burst")).verifyComplete();
+        }
+        StepVerifier.create(rateLimiter.acquire("burst"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+    }
+
+    @Test
+    void acquire_shouldGrantAgain_afterRefill() throws InterruptedException {
+        limit("refill", "20.0", "1", "0");
+
+        StepVerifier.create(rateLimiter.acquire("refill")).verifyComplete();
+        StepVerifier.create(rateLimiter.acquire("refill"))
+            .expectError(RateLimitExceededException.class)
+            .verify();
+
+        Thread.sleep(100);
+        StepVerifier.create(rateLimiter.acquire("refill")).verifyComplete();
+    }
+
+    @Test
+    void acquire_shouldWaitForPermit_withinMaxWait() {
+        limit("wait", "10.0", "1", "1000");
+
+        StepVerifier.create(rateLimiter.acquire("wait")).verifyComplete();
+        StepVerifier.create(rateLimiter.acquire("wait"))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(50))
+            .expectComplete()
+            .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void acquire_shouldReturnPermit_whenWaiterCancels() {
+        limit("cancel", "1.0", "1", "5000");
+
+        StepVerifier.create(rateLimiter.acquire("cancel")).verifyComplete();
+        StepVerifier.create(rateLimiter.acquire("cancel"))
+            .expectSubscription()
+            .thenCancel()
+            .verify();
+
+        assertThat(waiters("cancel")).isZero();
+        // Without the refund the next permit would be two seconds away and the call rejected
+        StepVerifier.create(rateLimiter.acquire("cancel", Duration.ofMillis(1500)))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(50))
+            .thenCancel()
+            .verify();
+    }
+
+    private void limit(String name, String rate, String burst, String maxWait) {
+        environment.setProperty("image-fetch.rate-limit." + name + ".rate", rate);
+        environment.setProperty("image-fetch.rate-limit." + name + ".burst", burst);
+        environment.setProperty("image-fetch.rate-limit." + name + ".max-wait", maxWait);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int waiters(String name) {
+        return (int) ((Map<String, Object>) rateLimiter.stats().get(name)).get("waiters");
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.util.HtmlParser;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesPageServiceTest {
+
+    private static final String PAGE = """
+        <html><head>
+        <meta property="og:image" content="https://example.com/og.jpg">
+        </head><body><img src="https://example.com/body.jpg"></body></html>
+        """;
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private HttpStatus nextStatus = HttpStatus.OK;
+    private Flux<DataBuffer> nextBody;
+    private SalesPageService service;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                requests.add(request);
+                ClientResponse.Builder response = ClientResponse.create(nextStatus)
+                    .header(HttpHeaders.ETAG, "\"v1\"");
+                if (nextStatus == HttpStatus.OK) {
+                    response.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_HTML_VALUE);
+                    if (nextBody != null) {
+                        response.body(nextBody);
+                    } else {
+                        response.body(PAGE);
+                    }
+                }
+                return Mono.just(response.build());
+            })
+            .build();
+
+        service = new SalesPageService(webClient, new HtmlParser(), new SingleFlightRegistry(new SimpleMeterRegistry()),
+            new HostLatencyTracker(100), new CircuitBreakerService(new MockEnvironment(), 100),
+            new ImageFetchMetrics(new SimpleMeterRegistry()), 100);
+        ReflectionTestUtils.setField(service, "maxPageBytes", 1024 * 1024);
+        ReflectionTestUtils.setField(service, "minHeadImages", 1);
+    }
+
+    @Test
+    void fetchCandidates_shouldSendIfNoneMatch_andReuseCandidatesOn304() {
+        List<String> first = service.fetchCandidates("https://example.com/product", 3, Duration.ofSeconds(1)).block();
+
+        nextStatus = HttpStatus.NOT_MODIFIED;
+        List<String> second = service.fetchCandidates("https://example.com/product", 3, Duration.ofSeconds(1)).block();
+
+        assertThat(first).containsExactly("https://example.com/og.jpg");
+        assertThat(second).isEqualTo(first);
+        assertThat(requests.get(0).headers().getIfNoneMatch()).isEmpty();
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+    }
+
+    @Test
+    void fetchCandidates_shouldCancelDownload_whenHeadImagesFillMaxImages() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        // Nothing arrives after the head; the service must not wait for the rest of the page
+        nextBody = chunks("""
+            <html><head>
+            <meta property="og:image" content="https://example.com/og.jpg">
+            <meta name="twitter:image" content="https://example.com/twitter.jpg">
+            </head><body><div class="product">
+            """, 4096)
+            .concatWith(Flux.never())
+            .doOnCancel(() -> cancelled.set(true));
+
+        List<String> candidates = service.fetchCandidates("https://example.com/product", 2, Duration.ofSeconds(1))
+            .block(Duration.ofSeconds(2));
+
+        assertThat(candidates).containsExactly("https://example.com/og.jpg", "https://example.com/twitter.jpg");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void fetchCandidates_shouldCancelDownload_whenHeadHasAnImage_withDefaultMaxResults() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        nextBody = chunks("""
+            <html><head>
+            <meta property="og:image" content="https://example.com/og.jpg">
+            </head><body><div class="product">
+            """, 4096)
+            .concatWith(Flux.never())
+            .doOnCancel(() -> cancelled.set(true));
+
+        List<String> candidates = service.fetchCandidates("https://example.com/product", 3, Duration.ofSeconds(1))
+            .block(Duration.ofSeconds(2));
+
+        assertThat(candidates).containsExactly("https://example.com/og.jpg");
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void fetchCandidates_shouldReadBody_whenHeadHasNoImage() {
+        nextBody = chunks("""
+            <html><head><title>Item</title></head>
+            <body><img src="https://example.com/first.jpg"><img src="https://example.com/second.jpg"></body></html>
+            """, 16);
+
+        List<String> candidates = service.fetchCandidates("https://example.com/product", 3, Duration.ofSeconds(1)).block();
+
+        assertThat(candidates).containsExactly("https://example.com/first.jpg", "https://example.com/second.jpg");
+    }
+
+    @Test
+    void fetchCandidates_shouldReadBody_whenHeadHasFewerThanMinHeadImages() {
+        ReflectionTestUtils.setField(service, "minHeadImages", 2);
+
+        List<String> candidates = service.fetchCandidates("https://example.com/product", 3, Duration.ofSeconds(1)).block();
+
+        assertThat(candidates).containsExactly("https://example.com/og.jpg", "https://example.com/body.jpg");
+    }
+
+    @Test
+    void fetchCandidates_shouldIgnoreHeadEndInsideScriptsAndComments() {
+        // Small chunks split the tokens; a false match would end the head before the meta tags
+        nextBody = chunks("""
+            <html><head>
+            <script>document.write("</head><body>");</script>
+            <!-- </head> -->
+            <meta property="og:image" content="https://example.com/og.jpg">
+            <meta name="twitter:image" content="https://example.com/twitter.jpg">
+            </head><body><div class="product">
+            """, 7)
+            .concatWith(Flux.never());
+
+        List<String> candidates = service.fetchCandidates("https://example.com/product", 2, Duration.ofSeconds(1))
+            .block(Duration.ofSeconds(2));
+
+        assertThat(candidates).containsExactly("https://example.com/og.jpg", "https://example.com/twitter.jpg");
+    }
+
+    private static Flux<DataBuffer> chunks(String html, int chunkSize) {
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            int end = Math.min(bytes.length, offset + chunkSize);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, offset, end)));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.imagefetch.service;
+
+import com.example.imagefetch.exception.ImageTooLargeException;
+import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.util.ImageValidator;
+import com.example.imagefetch.util.SingleFlightRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailServiceTest {
+
+    // A public address literal, so the host check needs no DNS
+    private static final String IMAGE_URL = "https://93.184.216.34/photo.jpg";
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final ImageBlobStore blobStore = new ImageBlobStore();
+    private ThumbnailService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] source = jpeg(2000, 1000);
+        WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                downloads.incrementAndGet();
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, "image/jpeg")
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(source)))
+                    .build());
+            })
+            .build();
+
+        ReflectionTestUtils.setField(blobStore, "enabled", true);
+        ReflectionTestUtils.setField(blobStore, "directory", tempDir.resolve("blobs").toString());
+        blobStore.open();
+
+        service = new ThumbnailService(webClient, new ImageValidator(), blobStore, new HostReliabilityTracker(100),
+            new SingleFlightRegistry(new SimpleMeterRegistry()), new ImageFetchMetrics(new SimpleMeterRegistry()),
+            10 * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "sizes", List.of(128, 256));
+        ReflectionTestUtils.setField(service, "maxPixels", 10_000_000L);
+        ReflectionTestUtils.setField(service, "timeoutMs", 1000);
+        ReflectionTestUtils.setField(service, "workers", 2);
+        ReflectionTestUtils.setField(service, "queueSize", 4);
+        ReflectionTestUtils.setField(service, "directory", tempDir.resolve("thumbnails").toString());
+        ReflectionTestUtils.setField(service, "maxBytes", 1024L * 1024);
+        service.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        blobStore.close();
+    }
+
+    @Test
+    void render_shouldFitVariantBox_keepingAspectRatio() throws IOException {
+        byte[] thumbnail = service.render(IMAGE_URL, 200).block();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(image.getHeight()).isEqualTo(128);
+    }
+
+    @Test
+    void render_shouldServeFromDiskCache_onRepeatedRequest() {
+        byte[] first = service.render(IMAGE_URL, 128).block();
+        byte[] second = service.render(IMAGE_URL, 128).block();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(downloads.get()).isEqualTo(1);
+        assertThat(service.stats()).containsEntry("renders", 1L).containsEntry("diskHits", 1L);
+    }
+
+    @Test
+    void render_shouldRejectImage_whenHeaderExceedsPixelLimit() {
+        ReflectionTestUtils.setField(service, "maxPixels", 1_000_000L);
+
+        assertThatThrownBy(() -> service.render(IMAGE_URL, 128).block())
+            .isInstanceOf(ImageTooLargeException.class);
+    }
+
+    @Test
+    void render_shouldRejectInternalHosts_withoutDownloading() {
+        assertThatThrownBy(() -> service.render("http://127.0.0.1:8080/photo.jpg", 128).block())
+            .isInstanceOf(InvalidUrlException.class);
+        assertThatThrownBy(() -> service.render("http://169.254.169.254/latest/photo.jpg", 128).block())
+            .isInstanceOf(InvalidUrlException.class);
+
+        assertThat(downloads.get()).isZero();
+    }
+
+    @Test
+    void render_shouldNotStoreSourceImage_inBlobStore() {
+        service.render(IMAGE_URL, 128).block();
+
+        assertThat(downloads.get()).isEqualTo(1);
+        assertThat(blobStore.stats()).containsEntry("blobs", 0).containsEntry("aliases", 0);
+    }
+
+    @Test
+    void variantFor_shouldRoundUpToConfiguredSize() {
+        assertThat(service.variantFor(16)).isEqualTo(128);
+        assertThat(service.variantFor(129)).isEqualTo(256);
+        assertThat(service.variantFor(4096)).isEqualTo(256);
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", output);
+        return output.toByteArray();
+    }
+}
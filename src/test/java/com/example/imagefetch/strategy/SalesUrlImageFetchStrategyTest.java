@@ -4,17 +4,28 @@ import com.example.imagefetch.dto.ImageFetchRequest;
 import com.example.imagefetch.dto.ImageResult;
 import com.example.imagefetch.dto.ImageSource;
 import com.example.imagefetch.exception.InvalidUrlException;
+import com.example.imagefetch.service.AdaptiveTimeoutService;
+import com.example.imagefetch.service.CircuitBreakerService;
+import com.example.imagefetch.service.HostLatencyTracker;
+import com.example.imagefetch.service.HostReliabilityTracker;
+import com.example.imagefetch.service.ImageBlobStore;
+import com.example.imagefetch.service.ImageFetchMetrics;
+import com.example.imagefetch.service.ImageMetadataProbeService;
 import com.example.imagefetch.service.PerformanceMetricsService;
+import com.example.imagefetch.service.SalesPageService;
 import com.example.imagefetch.util.HtmlParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -44,12 +55,25 @@ class SalesUrlImageFetchStrategyTest {
     @Mock
     private PerformanceMetricsService performanceMetricsService;
 
+    @Mock
+    private ImageMetadataProbeService imageMetadataProbeService;
+
+    @Mock
+    private SalesPageService salesPageService;
+
+    private final HostLatencyTracker latencyTracker = new HostLatencyTracker(100);
+
     private SalesUrlImageFetchStrategy strategy;
 
     @BeforeEach
     void setUp() {
-        strategy = new SalesUrlImageFetchStrategy(webClient, htmlParser, performanceMetricsService);
+        strategy = new SalesUrlImageFetchStrategy(webClient, htmlParser, performanceMetricsService,
+            imageMetadataProbeService, salesPageService, new ImageBlobStore(),
+            new AdaptiveTimeoutService(latencyTracker, new MockEnvironment()), latencyTracker,
+            new HostReliabilityTracker(100), new CircuitBreakerService(new MockEnvironment(), 100), new ImageFetchMetrics(new SimpleMeterRegistry()));
         ReflectionTestUtils.setField(strategy, "timeoutMs", 200);
+        ReflectionTestUtils.setField(strategy, "metadataTimeoutMs", 50);
+        ReflectionTestUtils.setField(strategy, "metadataConcurrency", 4);
         ReflectionTestUtils.setField(strategy, "maxResults", 3);
     }
 
@@ -230,4 +254,53 @@ class SalesUrlImageFetchStrategyTest {
         assertThat(results).hasSize(1);
         assertThat(results.get(0).url()).isEqualTo("https://example.com/image.jpg");
     }
-}
\ No newline at end of file
+
+    @Test
+    void fetchImages_shouldKeepExtractionOrder_whenMetadataFetchedConcurrently() {
+        // Given
+        ImageFetchRequest request = new ImageFetchRequest(
+            "Test Item",
+            null,
+            null,
+            "https://example.com/product",
+            null
+        );
+
+        String mockHtml = "<html><body>images</body></html>";
+        List<String> mockImageUrls = List.of(
+            "https://example.com/slow.jpg",
+            "https://example.com/fast.jpg"
+        );
+        byte[] slowBytes = new byte[]{1, 2, 3, 4};
+        byte[] fastBytes = new byte[]{1, 2};
+
+        WebClient.RequestHeadersSpec slowSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.RequestHeadersSpec fastSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.ResponseSpec slowResponse = mock(WebClient.ResponseSpec.class);
+        WebClient.ResponseSpec fastResponse = mock(WebClient.ResponseSpec.class);
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri("https://example.com/product")).thenReturn(requestHeadersSpec);
+        when(requestHeadersUriSpec.uri("https://example.com/slow.jpg")).thenReturn(slowSpec);
+        when(requestHeadersUriSpec.uri("https://example.com/fast.jpg")).thenReturn(fastSpec);
+        when(requestHeadersSpec.header(anyString(), anyString())).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(mockHtml));
+        when(slowSpec.retrieve()).thenReturn(slowResponse);
+        when(fastSpec.retrieve()).thenReturn(fastResponse);
+        when(slowResponse.bodyToMono(byte[].class)).thenReturn(Mono.just(slowBytes).delayElement(Duration.ofMillis(20)));
+        when(fastResponse.bodyToMono(byte[].class)).thenReturn(Mono.just(fastBytes));
+
+        when(htmlParser.selectRepresentativeImages(mockHtml, 3)).thenReturn(mockImageUrls);
+        when(performanceMetricsService.getImageResolution(any())).thenReturn("100x100");
+
+        // When
+        List<ImageResult> results = strategy.fetchImages(request);
+
+        // Then
+        assertThat(results).extracting(ImageResult::url)
+            .containsExactly("https://example.com/slow.jpg", "https://example.com/fast.jpg");
+        assertThat(results).extracting(ImageResult::fileSizeBytes)
+            .containsExactly(4L, 2L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(new CircuitBreaker.Config(
+        10, 4, 0.5, 0.75, Duration.ofMillis(100), Duration.ofSeconds(5), 2), clock::get);
+
+    @Test
+    void record_shouldOpen_whenFailureRateReachesThreshold() {
+        call(false, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(true, FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+        assertThat(breaker.snapshot().reason()).startsWith("failure rate 50%");
+        assertThat(breaker.snapshot().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void record_shouldOpen_whenSlowCallRateReachesThreshold() {
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, FAST);
+        call(false, SLOW);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot().reason()).startsWith("slow-call rate 75%");
+    }
+
+    @Test
+    void record_shouldForgetOutcomes_thatLeftTheWindow() {
+        call(true, FAST);
+        for (int i = 0; i < 10; i++) {
+            call(false, FAST);
+        }
+        assertThat(breaker.snapshot().failureRate()).isZero();
+
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.snapshot().failureRate()).isEqualTo(0.4);
+    }
+
+    @Test
+    void tryAcquire_shouldLetTrialCallsThrough_afterOpenDuration_andCloseWhenTheySucceed() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.REJECTED);
+
+        breaker.record(first, false, FAST);
+        breaker.record(second, false, FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.snapshot().calls()).isZero();
+    }
+
+    @Test
+    void record_shouldReopen_whenTrialCallsFail() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        breaker.record(first, true, FAST);
+        breaker.record(second, false, FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot().reason()).startsWith("trial calls: failure rate 50%");
+    }
+
+    @Test
+    void release_shouldReturnTrialPermit_whenCallIsCancelledEarly() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        breaker.release(first, FAST);
+
+        long third = breaker.tryAcquire();
+        assertThat(third).isNotEqualTo(CircuitBreaker.REJECTED);
+        breaker.record(second, false, FAST);
+        breaker.record(third, false, FAST);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void record_shouldIgnoreResults_ofCallsStartedBeforeTheBreakerOpened() {
+        long stale = breaker.tryAcquire();
+        tripOpen();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        long trial = breaker.tryAcquire();
+
+        breaker.record(stale, true, FAST);
+        breaker.record(trial, false, FAST);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean failed, long durationNanos) {
+        long permit = breaker.tryAcquire();
+        assertThat(permit).isNotEqualTo(CircuitBreaker.REJECTED);
+        breaker.record(permit, failed, durationNanos);
+    }
+}
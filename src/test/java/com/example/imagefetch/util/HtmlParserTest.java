@@ -1,5 +1,7 @@
 package com.example.imagefetch.util;
 
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -198,4 +200,43 @@ class HtmlParserTest {
         assertThat(results).hasSize(1);
         assertThat(results.get(0)).isEqualTo("https://example.com/same-image.jpg");
     }
-}
\ No newline at end of file
+
+    @Test
+    void selectRepresentativeImages_shouldStopAtMaxImages_whenManyItemImages() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 1000; i++) {
+            html.append("<img src=\"https://example.com/item").append(i).append(".jpg\" />");
+        }
+        html.append("</body></html>");
+
+        List<String> results = htmlParser.selectRepresentativeImages(html.toString(), 3);
+
+        assertThat(results).containsExactly(
+            "https://example.com/item0.jpg",
+            "https://example.com/item1.jpg",
+            "https://example.com/item2.jpg"
+        );
+    }
+
+    @Test
+    void selectRepresentativeImages_shouldAcceptParsedDocument() {
+        Document doc = Jsoup.parse("""
+            <html>
+            <head>
+                <meta property="twitter:image" content="https://example.com/twitter.jpg" />
+            </head>
+            <body>
+                <img src="https://example.com/logo.png" />
+                <img data-original="https://example.com/item.jpg" />
+            </body>
+            </html>
+            """);
+
+        List<String> results = htmlParser.selectRepresentativeImages(doc, 3);
+
+        assertThat(results).containsExactly(
+            "https://example.com/twitter.jpg",
+            "https://example.com/item.jpg"
+        );
+    }
+}
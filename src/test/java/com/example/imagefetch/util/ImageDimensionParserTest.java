@@ -0,0 +1,143 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageDimensionParserTest {
+
+    private ImageDimensionParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new ImageDimensionParser();
+    }
+
+    @Test
+    void parse_shouldReadPngDimensions() throws IOException {
+        byte[] png = encode("png", 640, 480);
+
+        Optional<ImageDimensions> result = parser.parse(png);
+
+        assertThat(result).contains(new ImageDimensions("png", 640, 480));
+    }
+
+    @Test
+    void parse_shouldReadJpegDimensions() throws IOException {
+        byte[] jpeg = encode("jpg", 800, 600);
+
+        Optional<ImageDimensions> result = parser.parse(jpeg);
+
+        assertThat(result).contains(new ImageDimensions("jpeg", 800, 600));
+    }
+
+    @Test
+    void parse_shouldReadGifDimensions() throws IOException {
+        byte[] gif = encode("gif", 120, 90);
+
+        Optional<ImageDimensions> result = parser.parse(gif);
+
+        assertThat(result).contains(new ImageDimensions("gif", 120, 90));
+    }
+
+    @Test
+    void parse_shouldReadJpegDimensions_fromHeaderPrefixOnly() throws IOException {
+        byte[] jpeg = encode("jpg", 1024, 768);
+        byte[] prefix = Arrays.copyOf(jpeg, 1024);
+
+        Optional<ImageDimensions> result = parser.parse(prefix);
+
+        assertThat(result).contains(new ImageDimensions("jpeg", 1024, 768));
+    }
+
+    @Test
+    void parse_shouldReadLossyWebpDimensions() {
+        byte[] webp = webpHeader("VP8 ", 10);
+        // frame tag, start code, 14-bit width and height
+        webp[20] = 0x30;
+        webp[23] = (byte) 0x9D;
+        webp[24] = 0x01;
+        webp[25] = 0x2A;
+        writeUInt16LE(webp, 26, 500);
+        writeUInt16LE(webp, 28, 375);
+
+        Optional<ImageDimensions> result = parser.parse(webp);
+
+        assertThat(result).contains(new ImageDimensions("webp", 500, 375));
+    }
+
+    @Test
+    void parse_shouldReadLosslessWebpDimensions() {
+        byte[] webp = webpHeader("VP8L", 5);
+        int width = 300 - 1;
+        int height = 200 - 1;
+        long bits = width | ((long) height << 14);
+        webp[20] = 0x2F;
+        webp[21] = (byte) (bits & 0xFF);
+        webp[22] = (byte) ((bits >> 8) & 0xFF);
+        webp[23] = (byte) ((bits >> 16) & 0xFF);
+        webp[24] = (byte) ((bits >> 24) & 0xFF);
+
+        Optional<ImageDimensions> result = parser.parse(webp);
+
+        assertThat(result).contains(new ImageDimensions("webp", 300, 200));
+    }
+
+    @Test
+    void parse_shouldReadExtendedWebpDimensions() {
+        byte[] webp = webpHeader("VP8X", 10);
+        writeUInt24LE(webp, 24, 4000 - 1);
+        writeUInt24LE(webp, 27, 3000 - 1);
+
+        Optional<ImageDimensions> result = parser.parse(webp);
+
+        assertThat(result).contains(new ImageDimensions("webp", 4000, 3000));
+    }
+
+    @Test
+    void parse_shouldReturnEmpty_whenHeaderTruncated() throws IOException {
+        byte[] png = Arrays.copyOf(encode("png", 10, 10), 12);
+
+        assertThat(parser.parse(png)).isEmpty();
+    }
+
+    @Test
+    void parse_shouldReturnEmpty_whenUnknownFormat() {
+        assertThat(parser.parse(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12})).isEmpty();
+        assertThat(parser.parse(null)).isEmpty();
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] webpHeader(String chunk, int chunkSize) {
+        byte[] data = new byte[20 + chunkSize];
+        System.arraycopy("RIFF".getBytes(), 0, data, 0, 4);
+        System.arraycopy("WEBP".getBytes(), 0, data, 8, 4);
+        System.arraycopy(chunk.getBytes(), 0, data, 12, 4);
+        return data;
+    }
+
+    private static void writeUInt16LE(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value & 0xFF);
+        data[offset + 1] = (byte) ((value >> 8) & 0xFF);
+    }
+
+    private static void writeUInt24LE(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value & 0xFF);
+        data[offset + 1] = (byte) ((value >> 8) & 0xFF);
+        data[offset + 2] = (byte) ((value >> 16) & 0xFF);
+    }
+}
@@ -54,4 +54,38 @@ class ImageValidatorTest {
     void testValidateImageUrl_MalformedUrl() {
         assertThrows(InvalidUrlException.class, () -> imageValidator.validateImageUrl("not-a-url"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testValidatePublicImageUrl_PublicAddress() {
+        assertDoesNotThrow(() -> imageValidator.validatePublicImageUrl("https://93.184.216.34/image.jpg"));
+    }
+
+    @Test
+    void testValidatePublicImageUrl_InternalAddresses() {
+        for (String url : new String[] {
+            "http://127.0.0.1/image.jpg",
+            "http://localhost:8080/image.jpg",
+            "http://2130706433/image.jpg",
+            "http://0.0.0.0/image.jpg",
+            "http://10.1.2.3/image.jpg",
+            "http://172.16.0.1/image.jpg",
+            "http://192.168.1.1/image.jpg",
+            "http://169.254.169.254/latest/meta-data/image.jpg",
+            "http://100.64.0.1/image.jpg",
+            "http://[::1]/image.jpg",
+            "http://[fd00::1]/image.jpg",
+            "http://[fe80::1]/image.jpg",
+            "http://[::ffff:127.0.0.1]/image.jpg"
+        }) {
+            assertThrows(InvalidUrlException.class, () -> imageValidator.validatePublicImageUrl(url), url);
+        }
+    }
+
+    @Test
+    void testValidatePublicImageUrl_NonHttpScheme() {
+        assertThrows(InvalidUrlException.class,
+            () -> imageValidator.validatePublicImageUrl("ftp://93.184.216.34/image.jpg"));
+        assertThrows(InvalidUrlException.class,
+            () -> imageValidator.validatePublicImageUrl("file:///etc/image.jpg"));
+    }
+}
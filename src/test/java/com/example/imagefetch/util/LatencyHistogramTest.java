@@ -0,0 +1,41 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void quantile_shouldBeWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000);
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        long p95 = TimeUnit.NANOSECONDS.toMillis(histogram.quantile(0.95));
+
+        assertThat(p95).isBetween(95L, 115L);
+    }
+
+    @Test
+    void quantile_shouldFollowRecentSamples_afterWindowDecay() {
+        LatencyHistogram histogram = new LatencyHistogram(100);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(histogram.quantile(0.95))).isLessThan(15L);
+        assertThat(histogram.count()).isLessThan(100L);
+    }
+
+    @Test
+    void quantile_shouldReturnMinusOne_whenEmpty() {
+        assertThat(new LatencyHistogram(100).quantile(0.5)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerceptualHashTest {
+
+    @Test
+    void dHash_shouldMatch_forResizedAndRecompressedCopies() throws IOException {
+        BufferedImage original = gradient(1600, 1200, Color.BLACK, Color.WHITE);
+        BufferedImage resized = gradient(400, 300, Color.BLACK, Color.WHITE);
+
+        long originalHash = PerceptualHash.dHash(decode(jpeg(original)));
+        long resizedHash = PerceptualHash.dHash(decode(jpeg(resized)));
+
+        assertThat(PerceptualHash.distance(originalHash, resizedHash)).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void dHash_shouldDiffer_forDifferentPictures() {
+        long first = PerceptualHash.dHash(gradient(400, 300, Color.BLACK, Color.WHITE));
+        long second = PerceptualHash.dHash(gradient(400, 300, Color.WHITE, Color.BLACK));
+
+        assertThat(PerceptualHash.distance(first, second)).isGreaterThan(32);
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws IOException {
+        return ImageDecoder.decodeSubsampled(jpeg, PerceptualHash.DECODE_SIZE, 10_000_000L);
+    }
+
+    private static BufferedImage gradient(int width, int height, Color from, Color to) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, from, width, height / 2f, to));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.imagefetch.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlightRegistry registry = new SingleFlightRegistry(meterRegistry);
+
+    @Test
+    void create_shouldBindCountersTaggedWithGroupName() {
+        SingleFlight<String, String> probes = registry.create("image-probe");
+        registry.create("sales-page");
+        Sinks.One<String> upstream = Sinks.one();
+
+        probes.execute("key", upstream::asMono).subscribe();
+        probes.execute("key", upstream::asMono).subscribe();
+        probes.execute("key", upstream::asMono).subscribe();
+
+        assertThat(meter("image.fetch.single-flight.in-flight", "image-probe")).isEqualTo(1);
+        upstream.tryEmitValue("result");
+
+        assertThat(counter("image.fetch.single-flight.executions", "image-probe")).isEqualTo(1);
+        assertThat(counter("image.fetch.single-flight.coalesced", "image-probe")).isEqualTo(2);
+        assertThat(meter("image.fetch.single-flight.max-fan-out", "image-probe")).isEqualTo(3);
+        assertThat(counter("image.fetch.single-flight.executions", "sales-page")).isZero();
+    }
+
+    @Test
+    void create_shouldReturnSameGroup_andBindItOnce() {
+        SingleFlight<String, String> first = registry.create("google-search");
+        SingleFlight<String, String> second = registry.create("google-search");
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.find("image.fetch.single-flight.executions").functionCounters()).hasSize(1);
+    }
+
+    private double counter(String name, String group) {
+        return meterRegistry.get(name).tag("group", group).functionCounter().count();
+    }
+
+    private double meter(String name, String group) {
+        return meterRegistry.get(name).tag("group", group).gauge().value();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_shouldShareOneCall_whenSameKeyInFlight() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+
+        singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(first::set);
+        singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(second::set);
+        upstream.tryEmitValue("result");
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(first.get()).isEqualTo("result");
+        assertThat(second.get()).isEqualTo("result");
+        assertThat(singleFlight.coalesced()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_shouldKeepCallRunning_whenOneCallerCancels() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<String> remaining = new AtomicReference<>();
+
+        Disposable leaving = singleFlight.execute("key", () -> upstream.asMono()
+            .doOnCancel(() -> cancelled.set(true))).subscribe();
+        singleFlight.execute("key", upstream::asMono).subscribe(remaining::set);
+
+        leaving.dispose();
+        upstream.tryEmitValue("result");
+
+        assertThat(cancelled.get()).isFalse();
+        assertThat(remaining.get()).isEqualTo("result");
+    }
+
+    @Test
+    void execute_shouldCancelCall_whenAllCallersCancel() {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        Disposable first = singleFlight.execute("key", () -> Mono.<String>never()
+            .doOnCancel(() -> cancelled.set(true))).subscribe();
+        Disposable second = singleFlight.execute("key", Mono::never).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertThat(cancelled.get()).isTrue();
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_shouldRunSeparately_whenCallsDoNotOverlap() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("key", () -> Mono.fromSupplier(() -> "a" + calls.incrementAndGet())).block();
+        singleFlight.execute("key", () -> Mono.fromSupplier(() -> "a" + calls.incrementAndGet())).block();
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(singleFlight.executions()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_shouldRunUpstreamOncePerExecution_underConcurrentCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        int threads = 8;
+        int iterations = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int answered = 0;
+                    for (int i = 0; i < iterations; i++) {
+                        if (singleFlight.execute("key", () -> Mono.fromSupplier(calls::incrementAndGet)).block() != null) {
+                            answered++;
+                        }
+                    }
+                    return answered;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> worker : workers) {
+                assertThat(worker.get(30, TimeUnit.SECONDS)).isEqualTo(iterations);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A caller joining a finished flight must get its result, not silently run the call again
+        assertThat(calls.get()).isEqualTo((int) singleFlight.executions());
+        assertThat(singleFlight.executions() + singleFlight.coalesced()).isEqualTo((long) threads * iterations);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+}
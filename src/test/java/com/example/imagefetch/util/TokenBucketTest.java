@@ -0,0 +1,85 @@
+package com.example.imagefetch.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(0);
+
+    @Test
+    void reserve_shouldGrantBurstImmediately_thenSpaceByRate() {
+        TokenBucket bucket = new TokenBucket(1.0, 3, 10, clock::get);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(SECOND)).isEqualTo(SECOND);
+        assertThat(bucket.reserve(5 * SECOND)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void reserve_shouldReject_whenWaitExceedsDeadline() {
+        TokenBucket bucket = new TokenBucket(1.0, 1, 10, clock::get);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(SECOND / 2)).isEqualTo(TokenBucket.REJECTED);
+
+        clock.addAndGet(SECOND);
+        assertThat(bucket.reserve(0)).isZero();
+    }
+
+    @Test
+    void reserve_shouldReject_whenTooManyWaiters() {
+        TokenBucket bucket = new TokenBucket(1.0, 1, 1, clock::get);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(SECOND);
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(TokenBucket.REJECTED);
+
+        bucket.waiterDone();
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void reserve_shouldRefill_whenIdle() {
+        TokenBucket bucket = new TokenBucket(2.0, 2, 10, clock::get);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isEqualTo(TokenBucket.REJECTED);
+
+        clock.addAndGet(SECOND);
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isEqualTo(TokenBucket.REJECTED);
+    }
+
+    @Test
+    void refund_shouldReturnReservedPermit_toNextCaller() {
+        TokenBucket bucket = new TokenBucket(1.0, 1, 10, clock::get);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(SECOND);
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(2 * SECOND);
+
+        bucket.refund();
+        assertThat(bucket.reserve(10 * SECOND)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void refund_shouldNotOverfillBucket() {
+        TokenBucket bucket = new TokenBucket(1.0, 2, 10, clock::get);
+
+        bucket.refund();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isEqualTo(TokenBucket.REJECTED);
+    }
+}